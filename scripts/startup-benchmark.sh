@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compares time-to-first-successful-request of the plain fat jar against the fast-startup build
+# (Spring AOT + AppCDS archive + lazy initialization).
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Needs the same database as the application (MYSQL_HOST, MYSQL_USER, MYSQL_PASSWORD).
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8081}
+URL="http://localhost:${PORT}/planets/?climate=arid"
+
+cd "$(dirname "$0")/.."
+./mvnw -B -q -Pfast-startup -DskipTests package
+
+JAR=$(ls target/starwars-planet-api-*.jar | grep -v -- '-exec.jar' | head -n 1)
+EXEC_JAR=$(ls target/starwars-planet-api-*-exec.jar | head -n 1)
+ARCHIVE=target/application.jsa
+FAST_OPTS=(-Dspring.aot.enabled=true -Dspring.profiles.active=startup -Dserver.port="${PORT}")
+
+# Training run: refresh the context once and dump every class it loaded into a dynamic CDS archive.
+java -XX:ArchiveClassesAtExit="${ARCHIVE}" -Dspring.context.exit=onRefresh "${FAST_OPTS[@]}" \
+    -jar "${JAR}" > target/cds-training.log 2>&1
+
+# Prints the milliseconds between launching the JVM and the first 200 response from ${URL}.
+first_request_ms() {
+    local start pid status
+    start=$(date +%s%N)
+    "$@" > target/startup-run.log 2>&1 &
+    pid=$!
+    until status=$(curl -s -o /dev/null -w '%{http_code}' "${URL}") && [ "${status}" = "200" ]; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "application exited before serving ${URL}, see target/startup-run.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    echo $(( ($(date +%s%N) - start) / 1000000 ))
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+}
+
+benchmark() {
+    local label=$1 total=0 best= ms
+    shift
+    for _ in $(seq "${RUNS}"); do
+        ms=$(first_request_ms "$@")
+        total=$(( total + ms ))
+        if [ -z "${best}" ] || [ "${ms}" -lt "${best}" ]; then
+            best=${ms}
+        fi
+    done
+    printf '%-14s runs=%d avg=%dms best=%dms\n' "${label}" "${RUNS}" $(( total / RUNS )) "${best}"
+}
+
+benchmark "default" java -Dserver.port="${PORT}" -jar "${EXEC_JAR}"
+benchmark "fast-startup" java -XX:SharedArchiveFile="${ARCHIVE}" "${FAST_OPTS[@]}" -jar "${JAR}"
@@ -0,0 +1,32 @@
+package com.example.starwarsplanetapi.benchmark;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DomainBenchmark {
+    private Planet planet;
+    private Planet samePlanet;
+
+    @Setup
+    public void setup() {
+        planet = new Planet(2L, "Alderaan", "temperate", "grasslands, mountains");
+        samePlanet = new Planet(2L, "Alderaan", "temperate", "grasslands, mountains");
+    }
+
+    @Benchmark
+    public boolean planetEquals() {
+        return planet.equals(samePlanet);
+    }
+
+    @Benchmark
+    public int planetHashCode() {
+        return planet.hashCode();
+    }
+}
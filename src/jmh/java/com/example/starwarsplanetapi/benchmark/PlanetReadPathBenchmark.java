@@ -0,0 +1,92 @@
+package com.example.starwarsplanetapi.benchmark;
+
+import com.example.starwarsplanetapi.StarWarsPlanetApiApplication;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.repository.PlanetRepository;
+import com.example.starwarsplanetapi.repository.PlanetRow;
+import com.example.starwarsplanetapi.service.PlanetService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.util.Streamable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Full list response (query + JSON) through managed entities versus the read-only projection path.
+// Allocation per operation: mvn verify -Pjmh -Djmh.args="PlanetReadPathBenchmark -f 1 -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PlanetReadPathBenchmark {
+    @Param({"1000", "10000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private PlanetRepository planetRepository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private ObjectWriter writer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(StarWarsPlanetApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=warn")
+                .run();
+        planetRepository = context.getBean(PlanetRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Planet.class));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM planet_climate");
+        jdbcTemplate.update("DELETE FROM planet_terrain");
+        jdbcTemplate.update("DELETE FROM planets");
+        context.getBean(PlanetService.class).createAll(IntStream.range(0, size)
+                .mapToObj(i -> new Planet("Planet " + i, "temperate, tropical", "jungle, rainforests"))
+                .toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] managedEntities() {
+        return readWrite.execute(status -> serialize(Streamable.of(planetRepository.findAll()).toList()));
+    }
+
+    @Benchmark
+    public byte[] readOnlyEntities() {
+        return readOnly.execute(status -> serialize(Streamable.of(planetRepository.findAll()).toList()));
+    }
+
+    @Benchmark
+    public byte[] projectedRows() {
+        return serialize(planetRepository.findRowsByKeys(null, null).stream().map(PlanetRow::toPlanet).toList());
+    }
+
+    private byte[] serialize(List<Planet> planets) {
+        try {
+            return writer.writeValueAsBytes(planets);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
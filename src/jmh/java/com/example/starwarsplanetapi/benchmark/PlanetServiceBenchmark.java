@@ -0,0 +1,69 @@
+package com.example.starwarsplanetapi.benchmark;
+
+import com.example.starwarsplanetapi.StarWarsPlanetApiApplication;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.service.PlanetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Runs the service against the in-memory H2 database configured in src/test/resources.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PlanetServiceBenchmark {
+    private static final int PLANETS = 1_000;
+    private static final String[] CLIMATES = {"arid", "temperate", "tropical", "frozen", "murky"};
+    private static final String[] TERRAINS = {"desert", "grasslands", "mountains", "jungle", "swamp"};
+
+    private ConfigurableApplicationContext context;
+    private PlanetService planetService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(StarWarsPlanetApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=warn")
+                .run();
+        planetService = context.getBean(PlanetService.class);
+        List<Planet> planets = IntStream.range(0, PLANETS)
+                .mapToObj(i -> new Planet("Planet " + i, CLIMATES[i % CLIMATES.length],
+                        TERRAINS[i % TERRAINS.length] + ", " + TERRAINS[(i + 1) % TERRAINS.length]))
+                .toList();
+        planetService.createAll(planets);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Planet findById() {
+        return planetService.findById(ThreadLocalRandom.current().nextLong(1, PLANETS + 1));
+    }
+
+    @Benchmark
+    public Planet findByName() {
+        return planetService.findByName("Planet " + ThreadLocalRandom.current().nextInt(PLANETS));
+    }
+
+    @Benchmark
+    public List<Planet> findPlanetsExact() {
+        return planetService.findPlanets(PlanetFilter.exact("temperate", null));
+    }
+
+    @Benchmark
+    public List<Planet> findPlanetsByTokens() {
+        return planetService.findPlanets(new PlanetFilter(null, "jungle, swamp", PlanetFilter.Match.ANY));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.starwarsplanetapi.benchmark;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<Planet> planets;
+
+    @Setup
+    public void setup() {
+        writer = new ObjectMapper().writerFor(new ObjectMapper().getTypeFactory()
+                .constructCollectionType(List.class, Planet.class));
+        planets = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> new Planet(id, "Planet " + id, "temperate, tropical", "jungle, rainforests"))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializePlanets() throws JsonProcessingException {
+        return writer.writeValueAsBytes(planets);
+    }
+}
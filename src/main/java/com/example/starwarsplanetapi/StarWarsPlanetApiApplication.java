@@ -2,8 +2,13 @@ package com.example.starwarsplanetapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
-@SpringBootApplication
+// The reactive repository manages its own R2DBC transactions; a second TransactionManager bean would
+// make @Transactional ambiguous for the JPA stack.
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
+@ConfigurationPropertiesScan
 public class StarWarsPlanetApiApplication {
 
 	public static void main(String[] args) {
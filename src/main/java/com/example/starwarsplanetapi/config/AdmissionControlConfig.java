@@ -0,0 +1,26 @@
+package com.example.starwarsplanetapi.config;
+
+import com.example.starwarsplanetapi.web.AdmissionControlFilter;
+import com.example.starwarsplanetapi.web.PlanetController;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "planets.admission", name = "enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(PlanetProperties planetProperties,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(planetProperties.getAdmission(), meterRegistry,
+                        "/planets" + PlanetController.CHANGES_PATH,
+                        "/planets" + PlanetController.EXPORT_PATH,
+                        "/planets" + PlanetController.IMPORT_PATH));
+        registration.addUrlPatterns("/planets/*");
+        return registration;
+    }
+}
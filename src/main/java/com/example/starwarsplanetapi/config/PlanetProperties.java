@@ -0,0 +1,144 @@
+package com.example.starwarsplanetapi.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "planets")
+public class PlanetProperties {
+    @Valid
+    private Batch batch = new Batch();
+    private Cache cache = new Cache();
+    private Search search = new Search();
+    private Admission admission = new Admission();
+    private Metrics metrics = new Metrics();
+    private Documents documents = new Documents();
+    private Replication replication = new Replication();
+    @Valid
+    private Imports imports = new Imports();
+    private Changes changes = new Changes();
+    private Coherence coherence = new Coherence();
+
+    @Data
+    public static class Batch {
+        @Positive
+        private int size = 50;
+    }
+
+    @Data
+    public static class Cache {
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+        // Bounds of the findPlanets result cache.
+        private long filterMaximumEntries = 1_000;
+        private long filterMaximumRows = 100_000;
+    }
+
+    @Data
+    public static class Search {
+        private int maxTypos = 2;
+        private int maxResults = 100;
+    }
+
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        private Limit reads = new Limit(100, 10, 400);
+        private Limit writes = new Limit(50, 5, 200);
+        // How much slower than the long-term baseline requests may get before the limits shrink.
+        private double latencyTolerance = 1.5;
+        private RateLimit rateLimit = new RateLimit();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+
+    @Data
+    public static class RateLimit {
+        // Zero disables the per-client rate limit.
+        private double requestsPerSecond;
+        private int burst = 50;
+        // Identifies clients by this header (e.g. an API key) when present, by remote address otherwise. Only set it
+        // when an upstream gateway authenticates the header: any client can send a fresh value per request.
+        private String clientHeader;
+        private long maxClients = 100_000;
+    }
+
+    @Data
+    public static class Metrics {
+        private List<Duration> byIdSlo = List.of(Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100));
+    }
+
+    @Data
+    public static class Documents {
+        private long maximumWeight = 64L * 1024 * 1024;
+        private int compressionThreshold = 1024;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Replication {
+        private boolean enabled;
+        private List<Replica> replicas = new ArrayList<>();
+        private int replicaPoolSize = 10;
+        // Reads stay on the primary this long after a write, to cover replication lag.
+        private Duration readYourWritesWindow = Duration.ofSeconds(1);
+        private Duration retryInterval = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    @Data
+    public static class Imports {
+        // Set to import a JSON dump (optionally .gz) on startup, see PlanetImportRunner.
+        private String file;
+        @Positive
+        private int batchSize = 500;
+        private int queueCapacity = 10_000;
+        private int maxReportedRejections = 1_000;
+        private long progressInterval = 100_000;
+    }
+
+    @Data
+    public static class Changes {
+        // Rounded up to a power of two; a subscriber further behind than this is asked to resynchronize.
+        private int ringSize = 4096;
+        private int maxSubscribers = 10_000;
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Coherence {
+        private boolean enabled = true;
+        // Tags this node's change log entries, which it has already applied to its own caches.
+        private String nodeId = UUID.randomUUID().toString();
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int batchSize = 500;
+        // How long a hole in the sequence is waited for: transactions can commit out of order, or roll back.
+        private Duration gapTimeout = Duration.ofSeconds(5);
+        private Duration retention = Duration.ofHours(1);
+    }
+}
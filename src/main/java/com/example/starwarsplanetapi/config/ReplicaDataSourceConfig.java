@@ -0,0 +1,61 @@
+package com.example.starwarsplanetapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Configuration
+@ConditionalOnProperty(prefix = "planets.replication", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                      DataSourceProperties properties,
+                                                      PlanetProperties planetProperties) {
+        PlanetProperties.Replication replication = planetProperties.getReplication();
+        List<DataSource> replicas = IntStream.range(0, replication.getReplicas().size())
+                .mapToObj(index -> replicaDataSource(index, replication, properties))
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                replication.getReadYourWritesWindow(), replication.getRetryInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static DataSource replicaDataSource(int index, PlanetProperties.Replication replication,
+                                                DataSourceProperties properties) {
+        PlanetProperties.Replica replica = replication.getReplicas().get(index);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.determinePassword());
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(replication.getReplicaPoolSize());
+        dataSource.setConnectionTimeout(1000);
+        // Start even if a replica is down; the routing datasource falls back to the primary.
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.starwarsplanetapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sends read-only transactions to the replicas (round robin) and everything else to the primary. Must sit behind
+// a LazyConnectionDataSourceProxy so the transaction is already marked read-only when the connection is fetched.
+// Reads stay on the primary for the read-your-writes window after every write this node commits or learns about
+// from the change log, so a node-local cache refilled right after an invalidation does not pick up a lagging copy;
+// a replica lagging by more than the window can still serve a stale row until the cache entry expires.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long readYourWritesWindowNanos;
+    private final long retryIntervalNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong lastWrite;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    Duration readYourWritesWindow, Duration retryInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.lastWrite = new AtomicLong(System.nanoTime() - readYourWritesWindowNanos);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // The window runs from the commit, when the write becomes visible, not from the start of a transaction
+            // that may have lasted longer than the window itself.
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recordWrite();
+                    }
+                });
+            }
+            return primary.getConnection();
+        }
+        if (System.nanoTime() - lastWrite.get() < readYourWritesWindowNanos) {
+            return primary.getConnection();
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                log.warn("Replica unavailable, routing reads to the next replica or the primary", ex);
+                replica.markDown(retryIntervalNanos);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Opens the read-your-writes window for a write committed elsewhere, before the caches it makes stale are evicted.
+    public void recordWrite() {
+        lastWrite.set(System.nanoTime());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static class Replica {
+        private final DataSource dataSource;
+        private volatile long downUntil;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        boolean isAvailable() {
+            return downUntil == 0 || System.nanoTime() - downUntil >= 0;
+        }
+
+        void markDown(long retryIntervalNanos) {
+            downUntil = System.nanoTime() + retryIntervalNanos;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.starwarsplanetapi.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+@Configuration
+public class StartupConfig {
+
+    // With spring.main.lazy-initialization (profile "startup") migrations and the schema validation still run on
+    // boot, so a broken schema fails the start instead of the first request.
+    @Bean
+    public static LazyInitializationExcludeFilter eagerSchemaInitialization() {
+        return LazyInitializationExcludeFilter.forBeanTypes(FlywayMigrationInitializer.class,
+                EntityManagerFactory.class, AbstractEntityManagerFactoryBean.class);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.starwarsplanetapi.domain;
+
+// A request the client has to fix (bad cursor, match mode, id list or import body); answered with 400.
+// Any other IllegalArgumentException is a server bug and stays a 500.
+public class InvalidPlanetRequestException extends IllegalArgumentException {
+
+    public InvalidPlanetRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidPlanetRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,19 +2,25 @@ package com.example.starwarsplanetapi.domain;
 
 
 import com.example.starwarsplanetapi.jacoco.ExcludeFromJacocoGeneratedReport;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
-import java.util.Objects;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
-@Table(name = "planets")
+@Table(name = "planets", indexes = {
+        @Index(name = "idx_planets_climate_terrain", columnList = "climate_key, terrain_key"),
+        @Index(name = "idx_planets_terrain", columnList = "terrain_key")
+})
 public class Planet {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,15 +38,93 @@ public class Planet {
     @Column(nullable = false)
     private String terrain;
 
-    public Planet(String name, String climate, String terrain) {
+    // Lower-cased copies of climate/terrain so case-insensitive filters can use plain index lookups.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "climate_key")
+    private String climateKey;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "terrain_key")
+    private String terrainKey;
+
+    // Comma separated climate/terrain values split into one indexed row per token.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @ElementCollection
+    @CollectionTable(name = "planet_climate", joinColumns = @JoinColumn(name = "planet_id"),
+            indexes = @Index(name = "idx_planet_climate_token", columnList = "token, planet_id"))
+    @Column(name = "token", nullable = false)
+    private Set<String> climateTokens = new HashSet<>();
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @ElementCollection
+    @CollectionTable(name = "planet_terrain", joinColumns = @JoinColumn(name = "planet_id"),
+            indexes = @Index(name = "idx_planet_terrain_token", columnList = "token, planet_id"))
+    @Column(name = "token", nullable = false)
+    private Set<String> terrainTokens = new HashSet<>();
+
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @JsonIgnore
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Planet(Long id, String name, String climate, String terrain) {
+        this.id = id;
         this.name = name;
-        this.climate = climate;
-        this.terrain = terrain;
+        setClimate(climate);
+        setTerrain(terrain);
+    }
+
+    public Planet(String name, String climate, String terrain) {
+        this(null, name, climate, terrain);
     }
 
     public Planet(String climate, String terrain) {
+        this(null, null, climate, terrain);
+    }
+
+    public void setClimate(String climate) {
         this.climate = climate;
+        this.climateKey = normalize(climate);
+        this.climateTokens.clear();
+        this.climateTokens.addAll(tokenize(climate));
+    }
+
+    public void setTerrain(String terrain) {
         this.terrain = terrain;
+        this.terrainKey = normalize(terrain);
+        this.terrainTokens.clear();
+        this.terrainTokens.addAll(tokenize(terrain));
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    public static Set<String> tokenize(String value) {
+        if (value == null) {
+            return Set.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalize(value).split(",")) {
+            if (!token.isBlank()) {
+                tokens.add(token.trim());
+            }
+        }
+        return tokens;
     }
 
     @ExcludeFromJacocoGeneratedReport
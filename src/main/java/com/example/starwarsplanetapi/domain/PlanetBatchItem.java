@@ -0,0 +1,20 @@
+package com.example.starwarsplanetapi.domain;
+
+public record PlanetBatchItem(int index, String name, Long id, Status status, String message) {
+
+    public enum Status {
+        CREATED, CONFLICT, INVALID
+    }
+
+    public static PlanetBatchItem created(int index, Planet planet) {
+        return new PlanetBatchItem(index, planet.getName(), planet.getId(), Status.CREATED, null);
+    }
+
+    public static PlanetBatchItem conflict(int index, Planet planet, String message) {
+        return new PlanetBatchItem(index, planet.getName(), null, Status.CONFLICT, message);
+    }
+
+    public static PlanetBatchItem invalid(int index, Planet planet, String message) {
+        return new PlanetBatchItem(index, planet.getName(), null, Status.INVALID, message);
+    }
+}
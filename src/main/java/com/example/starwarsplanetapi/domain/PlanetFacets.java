@@ -0,0 +1,6 @@
+package com.example.starwarsplanetapi.domain;
+
+import java.util.Map;
+
+public record PlanetFacets(long total, Map<String, Integer> climate, Map<String, Integer> terrain) {
+}
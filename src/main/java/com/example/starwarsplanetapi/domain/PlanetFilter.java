@@ -0,0 +1,49 @@
+package com.example.starwarsplanetapi.domain;
+
+import java.util.Locale;
+import java.util.Set;
+
+public record PlanetFilter(String climate, String terrain, Match match) {
+
+    public enum Match {
+        EXACT, ALL, ANY;
+
+        public static Match from(String value) {
+            if (value == null || value.isBlank()) {
+                return EXACT;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidPlanetRequestException("Invalid match mode: " + value, ex);
+            }
+        }
+    }
+
+    public PlanetFilter {
+        if (match == null) {
+            match = Match.EXACT;
+        }
+    }
+
+    public static PlanetFilter exact(String climate, String terrain) {
+        return new PlanetFilter(climate, terrain, Match.EXACT);
+    }
+
+    // Case-insensitive form used as a cache and coalescing key, matching the climate_key and terrain_key columns.
+    public PlanetFilter normalized() {
+        return new PlanetFilter(Planet.normalize(climate), Planet.normalize(terrain), match);
+    }
+
+    public Set<String> climateTokens() {
+        return Planet.tokenize(climate);
+    }
+
+    public Set<String> terrainTokens() {
+        return Planet.tokenize(terrain);
+    }
+
+    public boolean byTokens() {
+        return match != Match.EXACT && !(climateTokens().isEmpty() && terrainTokens().isEmpty());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.starwarsplanetapi.domain;
+
+import java.util.List;
+
+// rejections holds at most planets.imports.max-reported-rejections entries; rejected is the full count.
+public record PlanetImportReport(long read, long created, long rejected, List<PlanetBatchItem> rejections,
+                                 boolean rejectionsTruncated, long elapsedMillis) {
+}
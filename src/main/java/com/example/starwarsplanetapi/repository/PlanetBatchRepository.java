@@ -0,0 +1,9 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.domain.Planet;
+
+import java.util.List;
+
+public interface PlanetBatchRepository {
+    void insertAll(List<Planet> planets);
+}
@@ -0,0 +1,64 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+public class PlanetBatchRepositoryImpl implements PlanetBatchRepository {
+    private static final String INSERT_PLANET =
+            "INSERT INTO planets (name, climate, terrain, climate_key, terrain_key, version, updated_at) VALUES (?, ?, ?, ?, ?, 0, ?)";
+    private static final String SELECT_IDS_BY_NAME = "SELECT id, name FROM planets WHERE name IN (%s)";
+    private static final String INSERT_CLIMATE_TOKEN = "INSERT INTO planet_climate (planet_id, token) VALUES (?, ?)";
+    private static final String INSERT_TERRAIN_TOKEN = "INSERT INTO planet_terrain (planet_id, token) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertAll(List<Planet> planets) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        jdbcTemplate.batchUpdate(INSERT_PLANET, planets, planets.size(), (ps, planet) -> {
+            ps.setString(1, planet.getName());
+            ps.setString(2, planet.getClimate());
+            ps.setString(3, planet.getTerrain());
+            ps.setString(4, planet.getClimateKey());
+            ps.setString(5, planet.getTerrainKey());
+            ps.setTimestamp(6, Timestamp.from(now));
+        });
+
+        Map<String, Long> ids = new HashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(planets.size(), "?"));
+        jdbcTemplate.query(SELECT_IDS_BY_NAME.formatted(placeholders),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("name"), rs.getLong("id")),
+                planets.stream().map(Planet::getName).toArray());
+        planets.forEach(planet -> {
+            planet.setId(ids.get(planet.getName()));
+            planet.setUpdatedAt(now);
+        });
+
+        insertTokens(INSERT_CLIMATE_TOKEN, planets, Planet::getClimateTokens);
+        insertTokens(INSERT_TERRAIN_TOKEN, planets, Planet::getTerrainTokens);
+    }
+
+    private void insertTokens(String sql, List<Planet> planets, Function<Planet, Set<String>> tokens) {
+        List<Object[]> rows = planets.stream()
+                .flatMap(planet -> tokens.apply(planet).stream().map(token -> new Object[]{planet.getId(), token}))
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+
+// An entry of the planet change log, with the planet as it is now (null once it has been removed).
+public record PlanetChange(long sequence, PlanetChangeEvent.Type type, long planetId, String origin, Planet planet) {
+}
@@ -0,0 +1,94 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// The planet_changes outbox: appended in the same transaction as the write it records, tailed by every node.
+@Repository
+public class PlanetChangeRepository {
+    private static final String INSERT_CHANGE =
+            "INSERT INTO planet_changes (planet_id, change_type, origin, created_at) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_CHANGES = """
+            SELECT c.id, c.planet_id, c.change_type, c.origin, p.name, p.climate, p.terrain, p.version, p.updated_at
+            FROM planet_changes c LEFT JOIN planets p ON p.id = c.planet_id
+            """;
+    private static final String SELECT_CHANGES_AFTER = SELECT_CHANGES + "WHERE c.id > ? ORDER BY c.id LIMIT ?";
+    private static final String SELECT_CHANGES_IN = SELECT_CHANGES + "WHERE c.id IN (%s) ORDER BY c.id";
+    private static final String SELECT_LAST_SEQUENCE = "SELECT COALESCE(MAX(id), 0) FROM planet_changes";
+    private static final long NO_PLANET = 0;
+    private static final String DELETE_CHANGES_BEFORE = "DELETE FROM planet_changes WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String origin;
+
+    public PlanetChangeRepository(JdbcTemplate jdbcTemplate, PlanetProperties planetProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.origin = planetProperties.getCoherence().getNodeId();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(PlanetChangeEvent.Type type, Collection<Long> planetIds) {
+        Timestamp now = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, planetIds, planetIds.size(), (ps, planetId) -> {
+            ps.setLong(1, planetId);
+            ps.setString(2, type.name());
+            ps.setString(3, origin);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    // A RESET entry stands for a whole import and refers to no planet.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendReset() {
+        jdbcTemplate.update(INSERT_CHANGE, NO_PLANET, PlanetChangeEvent.Type.RESET.name(), origin,
+                Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+    }
+
+    public List<PlanetChange> findAfter(long sequence, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES_AFTER, PlanetChangeRepository::toChange, sequence, limit);
+    }
+
+    public List<PlanetChange> findIn(Collection<Long> sequences) {
+        if (sequences.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(sequences.size(), "?"));
+        return jdbcTemplate.query(SELECT_CHANGES_IN.formatted(placeholders), PlanetChangeRepository::toChange, sequences.toArray());
+    }
+
+    public long lastSequence() {
+        Long last = jdbcTemplate.queryForObject(SELECT_LAST_SEQUENCE, Long.class);
+        return last == null ? 0 : last;
+    }
+
+    public int deleteBefore(Instant cutoff) {
+        return jdbcTemplate.update(DELETE_CHANGES_BEFORE, Timestamp.from(cutoff));
+    }
+
+    public String origin() {
+        return origin;
+    }
+
+    private static PlanetChange toChange(ResultSet rs, int rowNum) throws SQLException {
+        long planetId = rs.getLong("planet_id");
+        String name = rs.getString("name");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        PlanetRow row = name == null ? null : new PlanetRow(planetId, name, rs.getString("climate"), rs.getString("terrain"),
+                rs.getLong("version"), updatedAt == null ? null : updatedAt.toInstant());
+        return new PlanetChange(rs.getLong("id"), PlanetChangeEvent.Type.valueOf(rs.getString("change_type")), planetId,
+                rs.getString("origin"), row == null ? null : row.toPlanet());
+    }
+}
@@ -1,18 +1,66 @@
 package com.example.starwarsplanetapi.repository;
 
 import com.example.starwarsplanetapi.domain.Planet;
-import org.springframework.data.domain.Example;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
-import org.springframework.data.repository.query.QueryByExampleExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PlanetRepository extends CrudRepository<Planet, Long>, QueryByExampleExecutor<Planet> {
+public interface PlanetRepository extends CrudRepository<Planet, Long>, PlanetBatchRepository, PlanetRowRepository {
+    String SELECT_ROW = "select new com.example.starwarsplanetapi.repository.PlanetRow(" +
+            "p.id, p.name, p.climate, p.terrain, p.version, p.updatedAt) from Planet p";
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     Optional<Planet> findByName(String name);
 
-    @Override
-    <S extends Planet> List<S> findAll(Example<S> example);
+    @Transactional(readOnly = true)
+    @Query(SELECT_ROW + " where p.id = :id")
+    Optional<PlanetRow> findRowById(Long id);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_ROW + " where p.name = :name")
+    Optional<PlanetRow> findRowByName(String name);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_ROW + " where p.id in :ids order by p.id")
+    List<PlanetRow> findRowsByIdIn(Collection<Long> ids);
+
+    @Query("select p.name from Planet p where p.name in :names")
+    List<String> findExistingNames(Collection<String> names);
+
+    @Transactional(readOnly = true)
+    @Query(value = "select planet_id from planet_climate where token = :token", nativeQuery = true)
+    List<Long> findIdsByClimateToken(String token);
+
+    @Transactional(readOnly = true)
+    @Query(value = "select planet_id from planet_terrain where token = :token", nativeQuery = true)
+    List<Long> findIdsByTerrainToken(String token);
+
+    // Bulk deletes skip the load that deleteById does; Hibernate clears the token tables first.
+    @Transactional
+    @Modifying
+    @Query("delete from Planet p where p.id = :id")
+    int deletePlanetById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Planet p where p.id in :ids")
+    int deletePlanetsByIdIn(Collection<Long> ids);
+
+    // The only query that sets a fetch size: with useCursorFetch it streams through a server-side cursor.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select p from Planet p order by p.id")
+    Stream<Planet> streamAll();
 }
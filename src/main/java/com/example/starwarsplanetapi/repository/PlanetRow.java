@@ -0,0 +1,22 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.domain.Planet;
+
+import java.time.Instant;
+
+// Read model built by a constructor expression: Hibernate hands it over without registering an entity,
+// a dirty-checking snapshot or the token collections.
+public record PlanetRow(Long id, String name, String climate, String terrain, long version, Instant updatedAt) {
+
+    public static PlanetRow of(Planet planet) {
+        return new PlanetRow(planet.getId(), planet.getName(), planet.getClimate(), planet.getTerrain(),
+                planet.getVersion(), planet.getUpdatedAt());
+    }
+
+    public Planet toPlanet() {
+        Planet planet = new Planet(id, name, climate, terrain);
+        planet.setVersion(version);
+        planet.setUpdatedAt(updatedAt);
+        return planet;
+    }
+}
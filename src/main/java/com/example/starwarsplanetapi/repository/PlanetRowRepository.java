@@ -0,0 +1,13 @@
+package com.example.starwarsplanetapi.repository;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+public interface PlanetRowRepository {
+    // A null key matches every planet.
+    List<PlanetRow> findRowsByKeys(String climateKey, String terrainKey);
+
+    // Keyset page of findRowsByKeys: rows after the given id (all when null), at most limit of them.
+    List<PlanetRow> findRowsByKeysAfter(String climateKey, String terrainKey, Long after, Limit limit);
+}
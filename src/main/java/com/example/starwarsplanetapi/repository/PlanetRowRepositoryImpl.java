@@ -0,0 +1,56 @@
+package com.example.starwarsplanetapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class PlanetRowRepositoryImpl implements PlanetRowRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlanetRow> findRowsByKeys(String climateKey, String terrainKey) {
+        return query(climateKey, terrainKey, null).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlanetRow> findRowsByKeysAfter(String climateKey, String terrainKey, Long after, Limit limit) {
+        TypedQuery<PlanetRow> query = query(climateKey, terrainKey, after);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+
+    // Only the conditions that apply are written, as in ReactivePlanetRepository, so every combination of keys is its
+    // own statement with its own plan instead of one "(:key is null or ...)" statement whose plan serves all of them.
+    private TypedQuery<PlanetRow> query(String climateKey, String terrainKey, Long after) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        addCondition("climateKey", "=", climateKey, conditions, bindings);
+        addCondition("terrainKey", "=", terrainKey, conditions, bindings);
+        addCondition("id", ">", after, conditions, bindings);
+
+        String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+        TypedQuery<PlanetRow> query = entityManager.createQuery(PlanetRepository.SELECT_ROW + where + " order by p.id", PlanetRow.class);
+        bindings.forEach(query::setParameter);
+        return query;
+    }
+
+    private static void addCondition(String property, String operator, Object value, List<String> conditions,
+                                     Map<String, Object> bindings) {
+        if (value != null) {
+            conditions.add("p." + property + " " + operator + " :" + property);
+            bindings.put(property, value);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Non-blocking counterpart of PlanetRepository over the same tables, used by the reactive API.
+@Repository
+@Profile("reactive")
+public class ReactivePlanetRepository {
+    private static final String SELECT_PLANETS = "SELECT p.id, p.name, p.climate, p.terrain, p.version FROM planets p";
+    private static final String INSERT_PLANET = "INSERT INTO planets (name, climate, terrain, climate_key, terrain_key, version, updated_at) " +
+            "VALUES (:name, :climate, :terrain, :climateKey, :terrainKey, 0, CURRENT_TIMESTAMP)";
+    private static final String INSERT_CLIMATE_TOKEN = "INSERT INTO planet_climate (planet_id, token) VALUES (:planetId, :token)";
+    private static final String INSERT_TERRAIN_TOKEN = "INSERT INTO planet_terrain (planet_id, token) VALUES (:planetId, :token)";
+    private static final String INSERT_CHANGE = "INSERT INTO planet_changes (planet_id, change_type, origin, created_at) " +
+            "VALUES (:planetId, :changeType, :origin, CURRENT_TIMESTAMP(6))";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final String origin;
+
+    public ReactivePlanetRepository(ConnectionFactory connectionFactory, PlanetProperties planetProperties) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        this.origin = planetProperties.getCoherence().getNodeId();
+    }
+
+    public Flux<Planet> findAll(PlanetFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        if (filter.byTokens()) {
+            List<String> tokenConditions = new ArrayList<>();
+            addTokenConditions("planet_climate", "c", filter.climateTokens(), tokenConditions, bindings);
+            addTokenConditions("planet_terrain", "t", filter.terrainTokens(), tokenConditions, bindings);
+            String operator = filter.match() == PlanetFilter.Match.ANY ? " OR " : " AND ";
+            conditions.add("(" + String.join(operator, tokenConditions) + ")");
+        } else {
+            addKeyCondition("climate_key", Planet.normalize(filter.climate()), conditions, bindings);
+            addKeyCondition("terrain_key", Planet.normalize(filter.terrain()), conditions, bindings);
+        }
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(SELECT_PLANETS + where + " ORDER BY p.id");
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map(ReactivePlanetRepository::toPlanet).all();
+    }
+
+    public Mono<Planet> findById(Long id) {
+        return databaseClient.sql(SELECT_PLANETS + " WHERE p.id = :id")
+                .bind("id", id)
+                .map(ReactivePlanetRepository::toPlanet)
+                .one();
+    }
+
+    public Mono<Planet> findByName(String name) {
+        return databaseClient.sql(SELECT_PLANETS + " WHERE p.name = :name")
+                .bind("name", name)
+                .map(ReactivePlanetRepository::toPlanet)
+                .one();
+    }
+
+    public Mono<Planet> insert(Planet planet) {
+        return databaseClient.sql(INSERT_PLANET)
+                .bind("name", planet.getName())
+                .bind("climate", planet.getClimate())
+                .bind("terrain", planet.getTerrain())
+                .bind("climateKey", planet.getClimateKey())
+                .bind("terrainKey", planet.getTerrainKey())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    planet.setId(id);
+                    return insertTokens(INSERT_CLIMATE_TOKEN, id, planet.getClimateTokens())
+                            .then(insertTokens(INSERT_TERRAIN_TOKEN, id, planet.getTerrainTokens()))
+                            .then(appendChange(PlanetChangeEvent.Type.CREATED, id))
+                            .thenReturn(planet);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return delete("DELETE FROM planet_climate WHERE planet_id = :id", id)
+                .then(delete("DELETE FROM planet_terrain WHERE planet_id = :id", id))
+                .then(delete("DELETE FROM planets WHERE id = :id", id))
+                .flatMap(deleted -> deleted == 0 ? Mono.just(deleted)
+                        : appendChange(PlanetChangeEvent.Type.REMOVED, id).thenReturn(deleted))
+                .as(transactionalOperator::transactional);
+    }
+
+    // Same change log entry as PlanetChangeRepository.append, in the transaction of the write it records.
+    private Mono<Void> appendChange(PlanetChangeEvent.Type type, Long planetId) {
+        return databaseClient.sql(INSERT_CHANGE)
+                .bind("planetId", planetId)
+                .bind("changeType", type.name())
+                .bind("origin", origin)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private Mono<Long> delete(String sql, Long id) {
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Void> insertTokens(String sql, Long planetId, Set<String> tokens) {
+        return Flux.fromIterable(tokens)
+                .concatMap(token -> databaseClient.sql(sql)
+                        .bind("planetId", planetId)
+                        .bind("token", token)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+
+    private static void addKeyCondition(String column, String value, List<String> conditions, Map<String, Object> bindings) {
+        if (value != null) {
+            conditions.add("p." + column + " = :" + column);
+            bindings.put(column, value);
+        }
+    }
+
+    private static void addTokenConditions(String table, String prefix, Set<String> tokens,
+                                           List<String> conditions, Map<String, Object> bindings) {
+        int index = 0;
+        for (String token : tokens) {
+            String alias = prefix + index++;
+            conditions.add("EXISTS (SELECT 1 FROM " + table + " " + alias +
+                    " WHERE " + alias + ".planet_id = p.id AND " + alias + ".token = :" + alias + ")");
+            bindings.put(alias, token);
+        }
+    }
+
+    private static Planet toPlanet(Row row, RowMetadata metadata) {
+        Planet planet = new Planet(row.get("id", Long.class), row.get("name", String.class),
+                row.get("climate", String.class), row.get("terrain", String.class));
+        Long version = row.get("version", Long.class);
+        if (version != null) {
+            planet.setVersion(version);
+        }
+        return planet;
+    }
+}
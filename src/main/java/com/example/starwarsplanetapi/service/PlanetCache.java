@@ -0,0 +1,154 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.repository.PlanetRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class PlanetCache implements MeterBinder {
+    // Planets are mutable and every caller gets its own, so the caches keep rows and copy them out on each hit.
+    private final Cache<Long, PlanetRow> planetsById;
+    // Names resolve to ids, so removing a planet by id also retires its name without scanning this cache.
+    private final Cache<String, Long> idsByName;
+    private final Cache<PlanetFilter, FilterResult> planetsByFilter;
+    private final long maximumRowsPerFilter;
+    // Bumped on every invalidation so a load that raced with a write never repopulates stale data. It is also the
+    // write generation of the filter results: any write makes all of them stale at once, without visiting them.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PlanetCache(PlanetProperties planetProperties) {
+        PlanetProperties.Cache properties = planetProperties.getCache();
+        this.planetsById = newCache(properties);
+        this.idsByName = newCache(properties);
+        // Every entry weighs at least maximumRows / maximumEntries, so the weight bound caps both rows and entries.
+        long minimumWeight = Math.max(1, properties.getFilterMaximumRows() / properties.getFilterMaximumEntries());
+        this.planetsByFilter = Caffeine.newBuilder()
+                .maximumWeight(properties.getFilterMaximumRows())
+                .<PlanetFilter, FilterResult>weigher((filter, result) -> (int) Math.min(Integer.MAX_VALUE,
+                        Math.max(minimumWeight, result.rows().size())))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        // A single listing may take a quarter of the budget at most, so it cannot flush every other entry.
+        this.maximumRowsPerFilter = properties.getFilterMaximumRows() / 4;
+    }
+
+    private static <K, V> Cache<K, V> newCache(PlanetProperties.Cache properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public Planet findById(Long id, Supplier<Planet> loader) {
+        PlanetRow cached = planetsById.getIfPresent(id);
+        return cached != null ? cached.toPlanet() : load(loader);
+    }
+
+    public Planet findByName(String name, Supplier<Planet> loader) {
+        String key = normalize(name);
+        Long id = idsByName.getIfPresent(key);
+        // asMap() leaves the by-id statistics alone; a name whose planet was invalidated is a miss.
+        PlanetRow cached = id != null ? planetsById.asMap().get(id) : null;
+        return cached != null && key.equals(normalize(cached.name())) ? cached.toPlanet() : load(loader);
+    }
+
+    public List<Planet> findPlanets(PlanetFilter filter, Supplier<List<Planet>> loader) {
+        PlanetFilter key = filter.normalized();
+        long generation = invalidations.get();
+        FilterResult cached = planetsByFilter.getIfPresent(key);
+        if (cached != null && cached.generation() == generation) {
+            return toPlanets(cached.rows());
+        }
+        List<PlanetRow> rows = loader.get().stream().map(PlanetRow::of).toList();
+        if (rows.size() <= maximumRowsPerFilter) {
+            planetsByFilter.put(key, new FilterResult(generation, rows));
+        }
+        return toPlanets(rows);
+    }
+
+    private static List<Planet> toPlanets(List<PlanetRow> rows) {
+        return rows.stream().map(PlanetRow::toPlanet).toList();
+    }
+
+    private Planet load(Supplier<Planet> loader) {
+        long stamp = invalidations.get();
+        Planet planet = loader.get();
+        if (invalidations.get() == stamp) {
+            planetsById.put(planet.getId(), PlanetRow.of(planet));
+            idsByName.put(normalize(planet.getName()), planet.getId());
+        }
+        return planet;
+    }
+
+    public void invalidate(Planet planet) {
+        invalidateById(planet.getId());
+        if (planet.getName() != null) {
+            idsByName.invalidate(normalize(planet.getName()));
+        }
+    }
+
+    public void invalidateById(Long id) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            planetsById.invalidate(id);
+        }
+    }
+
+    // One invalidation for a whole chunk of planets, so the filter results are made stale once per chunk.
+    public void invalidateAll(Collection<Planet> planets) {
+        invalidations.incrementAndGet();
+        planetsById.invalidateAll(planets.stream().map(Planet::getId).filter(Objects::nonNull).toList());
+        idsByName.invalidateAll(planets.stream().map(Planet::getName).filter(Objects::nonNull).map(PlanetCache::normalize).toList());
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        planetsById.invalidateAll();
+        idsByName.invalidateAll();
+    }
+
+    public Map<String, CacheStatistics> statistics() {
+        return Map.of("byId", CacheStatistics.of(planetsById), "byName", CacheStatistics.of(idsByName),
+                "byFilter", CacheStatistics.of(planetsByFilter));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, planetsById, "planets.byId");
+        CaffeineCacheMetrics.monitor(registry, idsByName, "planets.byName");
+        CaffeineCacheMetrics.monitor(registry, planetsByFilter, "planets.byFilter");
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record FilterResult(long generation, List<PlanetRow> rows) {
+    }
+
+    public record CacheStatistics(long size, long hits, long misses, long evictions, double hitRate) {
+        static CacheStatistics of(Cache<?, ?> cache) {
+            CacheStats stats = cache.stats();
+            return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                    stats.evictionCount(), stats.hitRate());
+        }
+    }
+}
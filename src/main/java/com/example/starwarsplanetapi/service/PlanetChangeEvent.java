@@ -0,0 +1,23 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.domain.Planet;
+
+public record PlanetChangeEvent(Type type, Long id, Planet planet) {
+
+    // RESET stands for changes too many to announce one by one (a bulk import): listeners drop or reload everything.
+    public enum Type {
+        CREATED, REMOVED, RESET
+    }
+
+    public static PlanetChangeEvent created(Planet planet) {
+        return new PlanetChangeEvent(Type.CREATED, planet.getId(), planet);
+    }
+
+    public static PlanetChangeEvent removed(Long id) {
+        return new PlanetChangeEvent(Type.REMOVED, id, null);
+    }
+
+    public static PlanetChangeEvent reset() {
+        return new PlanetChangeEvent(Type.RESET, null, null);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.config.ReplicaRoutingDataSource;
+import com.example.starwarsplanetapi.repository.PlanetChange;
+import com.example.starwarsplanetapi.repository.PlanetChangeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+// Tails the planet_changes log written by every node and replays the other nodes' changes locally: the cache is
+// invalidated and a PlanetChangeEvent is published, so indexes, versions and documents follow as for a local write.
+// Changes usually arrive within a poll interval. A hole in the sequence holds the log back for up to the gap timeout;
+// after that its sequences are skipped but queried again on every poll until the retention period ends, so an entry
+// that commits late is applied late rather than lost. A node with too many holes to track drops its caches instead.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "planets.coherence", name = "enabled", matchIfMissing = true)
+public class PlanetChangePoller implements SmartLifecycle {
+    private final PlanetChangeRepository planetChangeRepository;
+    private final PlanetCache planetCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlanetProperties.Coherence properties;
+    // Present when reads are routed to replicas.
+    private final Optional<ReplicaRoutingDataSource> routingDataSource;
+    private volatile Thread poller;
+    private volatile boolean running;
+    private static final long UNKNOWN = -1;
+
+    // Confined to the poller thread once started.
+    private long position;
+    private long gapSince = -1;
+    private long prunedAt;
+    // Sequences given up on by the gap timeout, with the time they were skipped.
+    private final NavigableMap<Long, Long> skipped = new TreeMap<>();
+    private boolean resetPending;
+
+    public PlanetChangePoller(PlanetChangeRepository planetChangeRepository, PlanetCache planetCache,
+                              ApplicationEventPublisher eventPublisher, PlanetProperties planetProperties,
+                              Optional<ReplicaRoutingDataSource> routingDataSource) {
+        this.planetChangeRepository = planetChangeRepository;
+        this.planetCache = planetCache;
+        this.eventPublisher = eventPublisher;
+        this.properties = planetProperties.getCoherence();
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void start() {
+        reposition();
+        prunedAt = System.nanoTime();
+        running = true;
+        poller = Thread.ofVirtual().name("planet-change-poller").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = poller;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(properties.getPollInterval().plusSeconds(1).toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                poll();
+                prune();
+            } catch (RuntimeException ex) {
+                log.warn("Could not read the planet change log, retrying in {}", properties.getPollInterval(), ex);
+            }
+            LockSupport.parkNanos(this, properties.getPollInterval().toNanos());
+        }
+    }
+
+    // Local caches start empty, so only changes made from now on matter. An empty log (never written, or pruned)
+    // does not tell where the sequence goes on, so the first entry read then sets the position.
+    void reposition() {
+        long last = planetChangeRepository.lastSequence();
+        position = last > 0 ? last : UNKNOWN;
+        // The changes up to here will never be replayed, so the first reads must not come from a replica missing them.
+        routingDataSource.ifPresent(ReplicaRoutingDataSource::recordWrite);
+    }
+
+    // Applies the other nodes' changes recorded since the last poll and returns how many were applied.
+    int poll() {
+        List<PlanetChange> changes = planetChangeRepository.findAfter(Math.max(position, 0), properties.getBatchSize());
+        if (position == UNKNOWN && !changes.isEmpty()) {
+            position = changes.get(0).sequence() - 1;
+        }
+        List<PlanetChange> arrived = new ArrayList<>(changes.size());
+        for (PlanetChange change : changes) {
+            if (change.sequence() > position + 1) {
+                if (!gapExpired()) {
+                    // An earlier transaction may still commit its entry; stop here and read again next time.
+                    break;
+                }
+                skip(position + 1, change.sequence() - 1);
+            }
+            gapSince = -1;
+            position = change.sequence();
+            arrived.add(change);
+        }
+        arrived.addAll(findSkipped());
+        return apply(arrived);
+    }
+
+    private int apply(List<PlanetChange> changes) {
+        int applied = 0;
+        boolean reset = resetPending;
+        for (PlanetChange change : changes) {
+            if (planetChangeRepository.origin().equals(change.origin())) {
+                continue;
+            }
+            if (applied == 0) {
+                // Before anything is evicted, so the loads that refill the caches read the primary.
+                routingDataSource.ifPresent(ReplicaRoutingDataSource::recordWrite);
+            }
+            if (change.type() == PlanetChangeEvent.Type.RESET) {
+                // An import logs one when it ends; however many arrive in a poll, the listeners reload once.
+                reset = true;
+            } else {
+                apply(change);
+            }
+            applied++;
+        }
+        if (reset) {
+            resetPending = false;
+            routingDataSource.ifPresent(ReplicaRoutingDataSource::recordWrite);
+            planetCache.invalidateAll();
+            eventPublisher.publishEvent(PlanetChangeEvent.reset());
+        }
+        return applied;
+    }
+
+    private void skip(long from, long to) {
+        if (to - from + 1 + skipped.size() > properties.getBatchSize()) {
+            // Too many holes to query them again: start the local caches over, which covers them all.
+            log.warn("Lost track of {} planet change log entries, resetting local caches", to - from + 1 + skipped.size());
+            skipped.clear();
+            resetPending = true;
+            return;
+        }
+        long now = System.nanoTime();
+        for (long sequence = from; sequence <= to; sequence++) {
+            skipped.put(sequence, now);
+        }
+    }
+
+    // Skipped entries that have committed since; the ones older than the retention period are not waited for anymore.
+    private List<PlanetChange> findSkipped() {
+        long expiredBefore = System.nanoTime() - properties.getRetention().toNanos();
+        skipped.values().removeIf(skippedAt -> skippedAt - expiredBefore < 0);
+        if (skipped.isEmpty()) {
+            return List.of();
+        }
+        List<PlanetChange> found = planetChangeRepository.findIn(skipped.keySet());
+        found.forEach(change -> skipped.remove(change.sequence()));
+        return found;
+    }
+
+    private boolean gapExpired() {
+        long now = System.nanoTime();
+        if (gapSince < 0) {
+            gapSince = now;
+        }
+        if (now - gapSince < properties.getGapTimeout().toNanos()) {
+            return false;
+        }
+        log.debug("Giving up on planet change log entries after {}", position);
+        return true;
+    }
+
+    private void apply(PlanetChange change) {
+        if (change.type() == PlanetChangeEvent.Type.REMOVED) {
+            planetCache.invalidateById(change.planetId());
+            eventPublisher.publishEvent(PlanetChangeEvent.removed(change.planetId()));
+        } else if (change.planet() != null) {
+            planetCache.invalidate(change.planet());
+            eventPublisher.publishEvent(PlanetChangeEvent.created(change.planet()));
+        }
+        // A created planet that is already gone has its removal further down the log.
+    }
+
+    private void prune() {
+        long now = System.nanoTime();
+        if (now - prunedAt < properties.getRetention().toNanos() / 10) {
+            return;
+        }
+        prunedAt = now;
+        int pruned = planetChangeRepository.deleteBefore(Instant.now().minus(properties.getRetention()));
+        log.debug("Pruned {} planet change log entries", pruned);
+    }
+}
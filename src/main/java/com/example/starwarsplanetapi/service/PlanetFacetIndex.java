@@ -0,0 +1,157 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFacets;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@RequiredArgsConstructor
+public class PlanetFacetIndex {
+    private final PlanetService planetService;
+    private final TransactionOperations transactionOperations;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap planets = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> climates = new HashMap<>();
+    private final Map<String, RoaringBitmap> terrains = new HashMap<>();
+    // Whole normalized values, for the default exact match that the list endpoint answers from climate_key/terrain_key.
+    private final Map<String, RoaringBitmap> climateKeys = new HashMap<>();
+    private final Map<String, RoaringBitmap> terrainKeys = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            planets.clear();
+            climates.clear();
+            terrains.clear();
+            climateKeys.clear();
+            terrainKeys.clear();
+            // Only the changes applied after the load keep the index current, so it is read inside a read-write
+            // transaction, which is routed to the primary rather than to a replica that may lag behind.
+            transactionOperations.executeWithoutResult(status -> planetService.exportPlanets(this::add));
+            planets.runOptimize();
+            climates.values().forEach(RoaringBitmap::runOptimize);
+            terrains.values().forEach(RoaringBitmap::runOptimize);
+            climateKeys.values().forEach(RoaringBitmap::runOptimize);
+            terrainKeys.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onPlanetChange(PlanetChangeEvent event) {
+        if (event.type() == PlanetChangeEvent.Type.RESET) {
+            load();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(event.id());
+            if (event.type() == PlanetChangeEvent.Type.CREATED) {
+                add(event.planet());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public PlanetFacets facets(PlanetFilter filter) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap scope = scope(filter);
+            return new PlanetFacets(scope.getLongCardinality(), count(climates, scope), count(terrains, scope));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Planet planet) {
+        int id = Math.toIntExact(planet.getId());
+        planets.add(id);
+        Planet.tokenize(planet.getClimate()).forEach(token -> climates.computeIfAbsent(token, key -> new RoaringBitmap()).add(id));
+        Planet.tokenize(planet.getTerrain()).forEach(token -> terrains.computeIfAbsent(token, key -> new RoaringBitmap()).add(id));
+        addKey(climateKeys, planet.getClimate(), id);
+        addKey(terrainKeys, planet.getTerrain(), id);
+    }
+
+    private static void addKey(Map<String, RoaringBitmap> bitmaps, String value, int id) {
+        if (value != null) {
+            bitmaps.computeIfAbsent(Planet.normalize(value), key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void remove(Long planetId) {
+        int id = Math.toIntExact(planetId);
+        if (!planets.contains(id)) {
+            return;
+        }
+        planets.remove(id);
+        removeFrom(climates, id);
+        removeFrom(terrains, id);
+        removeFrom(climateKeys, id);
+        removeFrom(terrainKeys, id);
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> bitmaps, int id) {
+        Iterator<RoaringBitmap> iterator = bitmaps.values().iterator();
+        while (iterator.hasNext()) {
+            RoaringBitmap bitmap = iterator.next();
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // Mirrors PlanetService.findPlanets, so the counts describe exactly the planets the list endpoint returns.
+    private RoaringBitmap scope(PlanetFilter filter) {
+        if (!filter.byTokens()) {
+            return restrict(restrict(planets, climateKeys, filter.climate()), terrainKeys, filter.terrain());
+        }
+        List<RoaringBitmap> postings = new ArrayList<>();
+        filter.climateTokens().forEach(token -> postings.add(climates.getOrDefault(token, new RoaringBitmap())));
+        filter.terrainTokens().forEach(token -> postings.add(terrains.getOrDefault(token, new RoaringBitmap())));
+        if (postings.isEmpty()) {
+            return planets;
+        }
+        RoaringBitmap scope = postings.get(0).clone();
+        for (int i = 1; i < postings.size(); i++) {
+            if (filter.match() == PlanetFilter.Match.ANY) {
+                scope.or(postings.get(i));
+            } else {
+                scope.and(postings.get(i));
+            }
+        }
+        return scope;
+    }
+
+    private static RoaringBitmap restrict(RoaringBitmap scope, Map<String, RoaringBitmap> keys, String value) {
+        if (value == null) {
+            return scope;
+        }
+        return RoaringBitmap.and(scope, keys.getOrDefault(Planet.normalize(value), new RoaringBitmap()));
+    }
+
+    private static Map<String, Integer> count(Map<String, RoaringBitmap> bitmaps, RoaringBitmap scope) {
+        Map<String, Integer> counts = new TreeMap<>();
+        bitmaps.forEach((token, bitmap) -> {
+            int count = RoaringBitmap.andCardinality(bitmap, scope);
+            if (count > 0) {
+                counts.put(token, count);
+            }
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.PlanetImportReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+// One-off import from the command line:
+// java -jar app.jar --spring.main.web-application-type=none --planets.imports.file=planets.json.gz
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "planets.imports", name = "file")
+@RequiredArgsConstructor
+public class PlanetImportRunner implements ApplicationRunner {
+    private final PlanetImporter planetImporter;
+    private final PlanetProperties planetProperties;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path file = Path.of(planetProperties.getImports().getFile());
+        log.info("Importing planets from {}", file);
+        try (InputStream json = open(file)) {
+            PlanetImportReport report = planetImporter.importPlanets(json);
+            report.rejections().forEach(rejection -> log.warn("Rejected record {} ({}): {} {}",
+                    rejection.index(), rejection.name(), rejection.status(), rejection.message()));
+        }
+    }
+
+    private static InputStream open(Path file) throws Exception {
+        InputStream input = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(input, 64 * 1024) : input;
+    }
+}
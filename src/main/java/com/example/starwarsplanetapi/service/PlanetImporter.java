@@ -0,0 +1,265 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetBatchItem;
+import com.example.starwarsplanetapi.domain.PlanetImportReport;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Imports SWAPI-style dumps (a JSON array of planets, or an object with a "results" array) in three stages:
+// parse on the caller thread, validate and write on their own threads, joined by bounded queues so a slow
+// database throttles the parser instead of buffering the whole file.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlanetImporter {
+    private static final Item END_OF_ITEMS = new Item(-1, null);
+    private static final List<Item> END_OF_BATCHES = List.of();
+    private static final int BATCH_QUEUE_CAPACITY = 4;
+
+    private final PlanetService planetService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlanetProperties planetProperties;
+
+    public PlanetImportReport importPlanets(InputStream json) throws IOException {
+        PlanetProperties.Imports properties = planetProperties.getImports();
+        Progress progress = new Progress(properties.getMaxReportedRejections(), properties.getProgressInterval());
+        BlockingQueue<Item> items = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        BlockingQueue<List<Item>> batches = new ArrayBlockingQueue<>(BATCH_QUEUE_CAPACITY);
+
+        ExecutorService stages = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> validation = stages.submit(() -> validate(items, batches, properties.getBatchSize(), progress));
+            Future<?> writing = stages.submit(() -> write(batches, properties.getBatchSize(), progress));
+            List<Future<?>> running = List.of(validation, writing);
+
+            parse(json, items, running, progress);
+            offer(items, END_OF_ITEMS, running);
+            awaitAll(running);
+        } catch (JsonProcessingException ex) {
+            throw new InvalidPlanetRequestException("Malformed planet import after " + progress.read.get() + " records: "
+                    + ex.getOriginalMessage(), ex);
+        } finally {
+            stages.shutdownNow();
+            // Batches are written without per-planet events; announce what was committed, even by a failed import.
+            if (progress.created.get() > 0) {
+                planetService.announceImport();
+            }
+        }
+
+        PlanetImportReport report = progress.report();
+        log.info("Planet import finished: {} read, {} created, {} rejected in {} ms",
+                report.read(), report.created(), report.rejected(), report.elapsedMillis());
+        return report;
+    }
+
+    private void parse(InputStream json, BlockingQueue<Item> items, List<Future<?>> running, Progress progress) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (!moveToPlanets(parser)) {
+                throw new InvalidPlanetRequestException("Expected a JSON array of planets or an object with a \"results\" array");
+            }
+            int index = 0;
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+                if (token == null) {
+                    throw new InvalidPlanetRequestException("Unexpected end of planet import after " + index + " records");
+                }
+                progress.read.incrementAndGet();
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    progress.reject(new PlanetBatchItem(index, null, null, PlanetBatchItem.Status.INVALID, "Expected a planet object"));
+                    continue;
+                }
+                JsonNode node = parser.readValueAsTree();
+                offer(items, new Item(index, new Planet(text(node, "name"), text(node, "climate"), text(node, "terrain"))), running);
+            }
+        }
+    }
+
+    private static boolean moveToPlanets(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return true;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    private void validate(BlockingQueue<Item> items, BlockingQueue<List<Item>> batches, int batchSize, Progress progress) {
+        try {
+            List<Item> batch = new ArrayList<>(batchSize);
+            for (Item item = items.take(); item != END_OF_ITEMS; item = items.take()) {
+                Set<ConstraintViolation<Planet>> violations = validator.validate(item.planet());
+                if (!violations.isEmpty()) {
+                    progress.reject(PlanetBatchItem.invalid(item.index(), item.planet(), PlanetService.describe(violations)));
+                    continue;
+                }
+                batch.add(item);
+                if (batch.size() == batchSize) {
+                    batches.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.put(batch);
+            }
+            batches.put(END_OF_BATCHES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(BlockingQueue<List<Item>> batches, int batchSize, Progress progress) {
+        try {
+            for (List<Item> batch = batches.take(); batch != END_OF_BATCHES; batch = batches.take()) {
+                List<PlanetBatchItem> results = planetService.importAll(batch.stream().map(Item::planet).toList(), batchSize);
+                for (int i = 0; i < results.size(); i++) {
+                    PlanetBatchItem result = results.get(i);
+                    if (result.status() == PlanetBatchItem.Status.CREATED) {
+                        progress.created.incrementAndGet();
+                    } else {
+                        progress.reject(new PlanetBatchItem(batch.get(i).index(), result.name(), null, result.status(), result.message()));
+                    }
+                }
+                progress.written(batch.size());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for room in the queue, but gives up as soon as a downstream stage has died.
+    private static <T> void offer(BlockingQueue<T> queue, T element, List<Future<?>> running) {
+        try {
+            while (!queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                if (anyStopped(running)) {
+                    throw new IllegalStateException("Planet import stage stopped unexpectedly");
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Planet import interrupted", ex);
+        }
+    }
+
+    // A failed stage would leave the other one blocked on its queue, so failures are checked while waiting.
+    private static void awaitAll(List<Future<?>> running) {
+        while (!running.stream().allMatch(Future::isDone)) {
+            anyStopped(running);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        running.forEach(PlanetImporter::await);
+    }
+
+    // Rethrows the failure of any stage that has already stopped.
+    private static boolean anyStopped(List<Future<?>> running) {
+        boolean stopped = false;
+        for (Future<?> stage : running) {
+            if (stage.isDone()) {
+                await(stage);
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    private static void await(Future<?> stage) {
+        try {
+            stage.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Planet import interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Planet import failed", ex.getCause());
+        }
+    }
+
+    private record Item(int index, Planet planet) {
+    }
+
+    private static final class Progress {
+        private final long startedAt = System.nanoTime();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final List<PlanetBatchItem> rejections = new ArrayList<>();
+        private final int maxReportedRejections;
+        private final long progressInterval;
+
+        private Progress(int maxReportedRejections, long progressInterval) {
+            this.maxReportedRejections = maxReportedRejections;
+            this.progressInterval = progressInterval;
+        }
+
+        private void reject(PlanetBatchItem item) {
+            rejected.incrementAndGet();
+            synchronized (rejections) {
+                if (rejections.size() < maxReportedRejections) {
+                    rejections.add(item);
+                }
+            }
+        }
+
+        private void written(int count) {
+            long before = written.getAndAdd(count);
+            if (progressInterval > 0 && (before + count) / progressInterval > before / progressInterval) {
+                log.info("Planet import progress: {} read, {} created, {} rejected",
+                        read.get(), created.get(), rejected.get());
+            }
+        }
+
+        private PlanetImportReport report() {
+            synchronized (rejections) {
+                List<PlanetBatchItem> reported = rejections.stream()
+                        .sorted((left, right) -> Integer.compare(left.index(), right.index()))
+                        .toList();
+                return new PlanetImportReport(read.get(), created.get(), rejected.get(), reported,
+                        rejected.get() > reported.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.repository.PlanetRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@RequiredArgsConstructor
+public class PlanetNameIndex {
+    private final PlanetService planetService;
+    private final TransactionOperations transactionOperations;
+    private final PlanetProperties planetProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Rows, so that a caller changing a planet it got from search cannot change the index.
+    private final Map<Long, PlanetRow> planets = new HashMap<>();
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            planets.clear();
+            root.children.clear();
+            root.ids.clear();
+            trigrams.clear();
+            // A read-write transaction goes to the primary, as in PlanetFacetIndex.load.
+            transactionOperations.executeWithoutResult(status -> planetService.exportPlanets(this::add));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onPlanetChange(PlanetChangeEvent event) {
+        if (event.type() == PlanetChangeEvent.Type.RESET) {
+            load();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(event.id());
+            if (event.type() == PlanetChangeEvent.Type.CREATED) {
+                add(event.planet());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Planet> search(String query, int limit) {
+        String normalized = Planet.normalize(query.trim());
+        int maxResults = Math.min(limit, planetProperties.getSearch().getMaxResults());
+        if (normalized.isEmpty() || maxResults <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> matches = new LinkedHashSet<>();
+            collectPrefixMatches(normalized, maxResults, matches);
+            if (matches.size() < maxResults) {
+                collectFuzzyMatches(normalized, maxResults, matches);
+            }
+            return matches.stream().map(id -> planets.get(id).toPlanet()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Planet planet) {
+        PlanetRow row = PlanetRow.of(planet);
+        String name = Planet.normalize(row.name());
+        planets.put(row.id(), row);
+
+        TrieNode node = root;
+        for (char c : name.toCharArray()) {
+            node = node.children.computeIfAbsent(c, key -> new TrieNode());
+        }
+        node.ids.add(row.id());
+        nameTrigrams(name).forEach(gram -> trigrams.computeIfAbsent(gram, key -> new HashSet<>()).add(row.id()));
+    }
+
+    private void remove(Long id) {
+        PlanetRow row = planets.remove(id);
+        if (row == null) {
+            return;
+        }
+        String name = Planet.normalize(row.name());
+        removeFromTrie(root, name, 0, id);
+        for (String gram : nameTrigrams(name)) {
+            Set<Long> ids = trigrams.get(gram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                trigrams.remove(gram);
+            }
+        }
+    }
+
+    private static boolean removeFromTrie(TrieNode node, String name, int depth, Long id) {
+        if (depth == name.length()) {
+            node.ids.remove(id);
+        } else {
+            TrieNode child = node.children.get(name.charAt(depth));
+            if (child != null && removeFromTrie(child, name, depth + 1, id)) {
+                node.children.remove(name.charAt(depth));
+            }
+        }
+        return node.ids.isEmpty() && node.children.isEmpty();
+    }
+
+    // Breadth-first walk below the prefix node, so shorter (closer) names are returned first.
+    private void collectPrefixMatches(String prefix, int limit, Set<Long> matches) {
+        TrieNode node = root;
+        for (char c : prefix.toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return;
+            }
+        }
+        Deque<TrieNode> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty() && matches.size() < limit) {
+            TrieNode current = queue.poll();
+            for (Long id : current.ids) {
+                if (matches.size() >= limit) {
+                    break;
+                }
+                matches.add(id);
+            }
+            queue.addAll(current.children.values());
+        }
+    }
+
+    private void collectFuzzyMatches(String query, int limit, Set<Long> matches) {
+        Set<String> queryGrams = queryTrigrams(query);
+        Map<Long, Integer> sharedGrams = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (Long id : trigrams.getOrDefault(gram, Set.of())) {
+                sharedGrams.merge(id, 1, Integer::sum);
+            }
+        }
+
+        int allowedTypos = Math.min(planetProperties.getSearch().getMaxTypos(), query.length() / 3);
+        sharedGrams.entrySet().stream()
+                .filter(entry -> !matches.contains(entry.getKey()))
+                .map(entry -> {
+                    String name = Planet.normalize(planets.get(entry.getKey()).name());
+                    int nameGrams = nameTrigrams(name).size();
+                    double similarity = entry.getValue() / (double) (queryGrams.size() + nameGrams - entry.getValue());
+                    return new Candidate(entry.getKey(), name, prefixDistance(query, name), similarity);
+                })
+                .filter(candidate -> candidate.distance() <= allowedTypos)
+                .sorted(Comparator.comparingInt(Candidate::distance)
+                        .thenComparing(Comparator.comparingDouble(Candidate::similarity).reversed())
+                        .thenComparing(Candidate::name))
+                .limit(limit - matches.size())
+                .forEach(candidate -> matches.add(candidate.id()));
+    }
+
+    // Edit distance between the query and the closest prefix of the name.
+    private static int prefixDistance(String query, String name) {
+        int[] previous = new int[name.length() + 1];
+        int[] current = new int[name.length() + 1];
+        for (int j = 0; j <= name.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= name.length(); j++) {
+                int substitution = previous[j - 1] + (query.charAt(i - 1) == name.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Arrays.stream(previous).min().orElse(query.length());
+    }
+
+    private static Set<String> queryTrigrams(String query) {
+        return trigramsOf("  " + query);
+    }
+
+    private static Set<String> nameTrigrams(String name) {
+        return trigramsOf("  " + name + " ");
+    }
+
+    private static Set<String> trigramsOf(String padded) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Candidate(Long id, String name, int distance, double similarity) {
+    }
+
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new TreeMap<>();
+        private final Set<Long> ids = new TreeSet<>();
+    }
+}
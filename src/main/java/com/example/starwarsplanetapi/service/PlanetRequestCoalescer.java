@@ -0,0 +1,110 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Single-flight for identical concurrent reads: the first caller for a key runs the query, the ones arriving while
+// it is in flight wait for and share its result (or its exception). Nothing is kept once the call returns, so this
+// complements PlanetCache rather than replacing it.
+@Component
+public class PlanetRequestCoalescer implements MeterBinder {
+    private static final String CALLS_METRIC = "planets.coalescing.calls";
+
+    private final SingleFlight<PlanetFilter, List<Planet>> filters = new SingleFlight<>();
+    private final SingleFlight<Long, Planet> ids = new SingleFlight<>();
+    private final SingleFlight<String, Planet> names = new SingleFlight<>();
+
+    public List<Planet> findPlanets(PlanetFilter filter, Supplier<List<Planet>> loader) {
+        return filters.execute(filter.normalized(), loader);
+    }
+
+    public Planet findById(Long id, Supplier<Planet> loader) {
+        return ids.execute(id, loader);
+    }
+
+    public Planet findByName(String name, Supplier<Planet> loader) {
+        return names.execute(Planet.normalize(name), loader);
+    }
+
+    // A caller that arrives after a write must not join a query that started before it, so writes detach
+    // every in-flight call; the running ones still complete for the callers already waiting on them.
+    @EventListener
+    public void onPlanetChange(PlanetChangeEvent event) {
+        filters.forget();
+        ids.forget();
+        names.forget();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        filters.bindTo(registry, "filter");
+        ids.bindTo(registry, "id");
+        names.bindTo(registry, "name");
+    }
+
+    private static final class SingleFlight<K, V> {
+        private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+        private final LongAdder executed = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+
+        private V execute(K key, Supplier<V> loader) {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+            if (inFlight != null) {
+                coalesced.increment();
+                return join(inFlight);
+            }
+            executed.increment();
+            try {
+                V value = loader.get();
+                call.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                call.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                calls.remove(key, call);
+            }
+        }
+
+        private static <V> V join(CompletableFuture<V> call) {
+            try {
+                return call.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (ex.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw ex;
+            }
+        }
+
+        private void forget() {
+            calls.clear();
+        }
+
+        private void bindTo(MeterRegistry registry, String query) {
+            FunctionCounter.builder(CALLS_METRIC, executed, LongAdder::sum)
+                    .tags("query", query, "outcome", "executed")
+                    .register(registry);
+            FunctionCounter.builder(CALLS_METRIC, coalesced, LongAdder::sum)
+                    .tags("query", query, "outcome", "coalesced")
+                    .register(registry);
+        }
+    }
+}
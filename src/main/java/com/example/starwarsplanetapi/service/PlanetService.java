@@ -1,37 +1,333 @@
 package com.example.starwarsplanetapi.service;
 
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
 import com.example.starwarsplanetapi.domain.Planet;
-import com.example.starwarsplanetapi.domain.QueryBuilder;
+import com.example.starwarsplanetapi.domain.PlanetBatchItem;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.repository.PlanetChangeRepository;
 import com.example.starwarsplanetapi.repository.PlanetRepository;
+import com.example.starwarsplanetapi.repository.PlanetRow;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.Assert;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("planets.service")
 @RequiredArgsConstructor
 public class PlanetService {
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     private final PlanetRepository planetRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final PlanetProperties planetProperties;
+    private final PlanetCache planetCache;
+    private final PlanetRequestCoalescer planetRequestCoalescer;
+    private final PlanetChangeRepository planetChangeRepository;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Writes commit together with their change log entries, which other nodes tail to invalidate their caches.
+    // Local caches and listeners are only notified after the commit.
     public Planet create(Planet planet) {
-        return  this.planetRepository.save(planet);
+        Planet planetCreated = this.transactionOperations.execute(status -> {
+            Planet saved = this.planetRepository.save(planet);
+            this.planetChangeRepository.append(PlanetChangeEvent.Type.CREATED, List.of(saved.getId()));
+            return saved;
+        });
+        this.planetCache.invalidate(planetCreated);
+        this.eventPublisher.publishEvent(PlanetChangeEvent.created(planetCreated));
+        return planetCreated;
+    }
+
+    public List<PlanetBatchItem> createAll(List<Planet> planets) {
+        return createAll(planets, this.planetProperties.getBatch().getSize());
+    }
+
+    public List<PlanetBatchItem> createAll(List<Planet> planets, int batchSize) {
+        return createAll(planets, batchSize, false);
+    }
+
+    // Bulk counterpart of createAll for imports, which validate the planets themselves: each chunk invalidates the
+    // local cache once, and nothing is logged or published per planet. The importer calls announceImport once it is
+    // done, so the other nodes reload once per import rather than once per chunk.
+    public List<PlanetBatchItem> importAll(List<Planet> planets, int batchSize) {
+        return createAll(planets, batchSize, true);
+    }
+
+    public void announceImport() {
+        this.transactionOperations.executeWithoutResult(status -> this.planetChangeRepository.appendReset());
+        this.eventPublisher.publishEvent(PlanetChangeEvent.reset());
+    }
+
+    private List<PlanetBatchItem> createAll(List<Planet> planets, int batchSize, boolean bulk) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+        PlanetBatchItem[] results = new PlanetBatchItem[planets.size()];
+        Set<String> namesInBatch = new HashSet<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int index = 0; index < planets.size(); index++) {
+            Planet planet = planets.get(index);
+            Set<ConstraintViolation<Planet>> violations = bulk ? Set.of() : this.validator.validate(planet);
+            if (!violations.isEmpty()) {
+                results[index] = PlanetBatchItem.invalid(index, planet, describe(violations));
+            } else if (!namesInBatch.add(normalize(planet.getName()))) {
+                results[index] = PlanetBatchItem.conflict(index, planet, "Duplicated name in batch");
+            } else {
+                pending.add(index);
+            }
+        }
+
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            insertChunk(planets, pending.subList(from, Math.min(from + batchSize, pending.size())), results, bulk);
+        }
+        return Arrays.asList(results);
     }
 
-    public List<Planet> findPlanets(String climate, String terrain){
-        Example<Planet> planetExample = QueryBuilder.makeQuery(new Planet(climate, terrain));
-        return this.planetRepository.findAll(planetExample) ;
+    private void insertChunk(List<Planet> planets, List<Integer> chunk, PlanetBatchItem[] results, boolean bulk) {
+        List<String> names = chunk.stream().map(index -> planets.get(index).getName()).toList();
+        Set<String> existingNames = this.planetRepository.findExistingNames(names).stream()
+                .map(PlanetService::normalize)
+                .collect(Collectors.toSet());
+
+        List<Integer> toInsert = new ArrayList<>();
+        for (int index : chunk) {
+            Planet planet = planets.get(index);
+            if (existingNames.contains(normalize(planet.getName()))) {
+                results[index] = PlanetBatchItem.conflict(index, planet, "Planet name already exists");
+            } else {
+                toInsert.add(index);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            insert(toInsert.stream().map(planets::get).toList(), bulk);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent writer took one of the names after the check above: the chunk was
+            // rolled back, so retry its rows one by one to isolate the conflicting ones.
+            toInsert = insertOneByOne(planets, toInsert, results, bulk);
+        }
+
+        List<Planet> inserted = toInsert.stream().map(planets::get).toList();
+        if (bulk) {
+            this.planetCache.invalidateAll(inserted);
+        }
+        for (int index : toInsert) {
+            Planet planet = planets.get(index);
+            if (!bulk) {
+                this.planetCache.invalidate(planet);
+                this.eventPublisher.publishEvent(PlanetChangeEvent.created(planet));
+            }
+            results[index] = PlanetBatchItem.created(index, planet);
+        }
+    }
+
+    private List<Integer> insertOneByOne(List<Planet> planets, List<Integer> indexes, PlanetBatchItem[] results, boolean bulk) {
+        List<Integer> inserted = new ArrayList<>();
+        for (int index : indexes) {
+            Planet planet = planets.get(index);
+            try {
+                insert(List.of(planet), bulk);
+                inserted.add(index);
+            } catch (DataIntegrityViolationException ex) {
+                results[index] = PlanetBatchItem.conflict(index, planet, "Planet name already exists");
+            }
+        }
+        return inserted;
+    }
+
+    private void insert(List<Planet> planets, boolean bulk) {
+        this.transactionOperations.executeWithoutResult(status -> {
+            this.planetRepository.insertAll(planets);
+            if (!bulk) {
+                this.planetChangeRepository.append(PlanetChangeEvent.Type.CREATED, planets.stream().map(Planet::getId).toList());
+            }
+        });
+    }
+
+    static String describe(Set<ConstraintViolation<Planet>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
     }
 
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // Not transactional: cache hits and identical concurrent calls waiting for the first one hold no connection,
+    // and each repository query opens its own read-only transaction. The returned list is immutable.
+    public List<Planet> findPlanets(PlanetFilter filter) {
+        return this.planetCache.findPlanets(filter,
+                () -> this.planetRequestCoalescer.findPlanets(filter,
+                        () -> queryPlanets(filter)));
+    }
+
+    private List<Planet> queryPlanets(PlanetFilter filter) {
+        if (!filter.byTokens()) {
+            return toPlanets(this.planetRepository.findRowsByKeys(Planet.normalize(filter.climate()), Planet.normalize(filter.terrain())));
+        }
+        return findAllInIdOrder(findIdsByTokens(filter));
+    }
+
+    @Transactional(readOnly = true)
+    public Window<Planet> findPlanets(PlanetFilter filter, ScrollPosition position, int limit) {
+        Long lastId = lastId(position);
+        if (!filter.byTokens()) {
+            // One extra row tells whether there is a next page, as in the token path below.
+            List<PlanetRow> rows = this.planetRepository.findRowsByKeysAfter(Planet.normalize(filter.climate()),
+                    Planet.normalize(filter.terrain()), lastId, Limit.of(limit + 1));
+            boolean hasNext = rows.size() > limit;
+            return window(toPlanets(hasNext ? rows.subList(0, limit) : rows), hasNext);
+        }
+
+        NavigableSet<Long> ids = findIdsByTokens(filter);
+        List<Long> pageIds = (lastId == null ? ids : ids.tailSet(lastId, false)).stream()
+                .limit(limit + 1L)
+                .toList();
+        boolean hasNext = pageIds.size() > limit;
+        return window(findAllInIdOrder(hasNext ? pageIds.subList(0, limit) : pageIds), hasNext);
+    }
+
+    private static Window<Planet> window(List<Planet> planets, boolean hasNext) {
+        return Window.from(planets, index -> ScrollPosition.forward(Map.of("id", planets.get(index).getId())), hasNext);
+    }
+
+    private NavigableSet<Long> findIdsByTokens(PlanetFilter filter) {
+        List<Set<Long>> postings = new ArrayList<>();
+        filter.climateTokens().forEach(token -> postings.add(new HashSet<>(this.planetRepository.findIdsByClimateToken(token))));
+        filter.terrainTokens().forEach(token -> postings.add(new HashSet<>(this.planetRepository.findIdsByTerrainToken(token))));
+
+        if (filter.match() == PlanetFilter.Match.ANY) {
+            NavigableSet<Long> union = new TreeSet<>();
+            postings.forEach(union::addAll);
+            return union;
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        NavigableSet<Long> intersection = new TreeSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !intersection.isEmpty(); i++) {
+            intersection.retainAll(postings.get(i));
+        }
+        return intersection;
+    }
+
+    private List<Planet> findAllInIdOrder(Collection<Long> ids) {
+        List<Long> sortedIds = List.copyOf(ids);
+        List<Planet> planets = new ArrayList<>(sortedIds.size());
+        for (int from = 0; from < sortedIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = sortedIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, sortedIds.size()));
+            planets.addAll(toPlanets(this.planetRepository.findRowsByIdIn(chunk)));
+        }
+        return planets;
+    }
+
+    private static List<Planet> toPlanets(List<PlanetRow> rows) {
+        List<Planet> planets = new ArrayList<>(rows.size());
+        rows.forEach(row -> planets.add(row.toPlanet()));
+        return planets;
+    }
+
+    private static Long lastId(ScrollPosition position) {
+        if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+            return ((Number) keyset.getKeys().get("id")).longValue();
+        }
+        return null;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportPlanets(Consumer<Planet> consumer) {
+        try (Stream<Planet> planets = this.planetRepository.streamAll()) {
+            planets.forEach(planet -> {
+                consumer.accept(planet);
+                this.entityManager.detach(planet);
+            });
+        }
+    }
+
+    // Cache hits never touch the database, so the read-only transaction is opened by the repository on a miss.
     public Planet findById(Long id) {
-        return this.planetRepository.findById(id).orElseThrow();
+        return this.planetCache.findById(id, () -> this.planetRequestCoalescer.findById(id,
+                () -> this.planetRepository.findRowById(id).orElseThrow().toPlanet()));
     }
 
     public Planet findByName(String name) {
-        return this.planetRepository.findByName(name).orElseThrow();
+        return this.planetCache.findByName(name, () -> this.planetRequestCoalescer.findByName(name,
+                () -> this.planetRepository.findRowByName(name).orElseThrow().toPlanet()));
     }
 
     public void removeById(Long id){
-        planetRepository.deleteById(id);
+        int removed = transactionOperations.execute(status -> {
+            int count = planetRepository.deletePlanetById(id);
+            if (count > 0) {
+                planetChangeRepository.append(PlanetChangeEvent.Type.REMOVED, List.of(id));
+            }
+            return count;
+        });
+        if (removed == 0) {
+            throw new EmptyResultDataAccessException("No planet with id " + id, 1);
+        }
+        planetCache.invalidateById(id);
+        eventPublisher.publishEvent(PlanetChangeEvent.removed(id));
+    }
+
+    // The row count of the bulk delete decides the 404. When it matches the request every id was removed and is
+    // logged and announced; when it falls short the delete is rolled back and redone id by id, as the inserts are,
+    // so that only the planets really removed are logged.
+    public int removeAllById(Collection<Long> ids) {
+        Set<Long> distinctIds = new TreeSet<>(ids);
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_IDS_PER_QUERY) {
+            throw new InvalidPlanetRequestException("Between 1 and " + MAX_IDS_PER_QUERY + " ids are required");
+        }
+        int deleted = transactionOperations.execute(status -> {
+            int count = planetRepository.deletePlanetsByIdIn(distinctIds);
+            if (count == distinctIds.size()) {
+                planetChangeRepository.append(PlanetChangeEvent.Type.REMOVED, List.copyOf(distinctIds));
+            } else {
+                status.setRollbackOnly();
+            }
+            return count;
+        });
+        List<Long> removedIds = deleted == distinctIds.size() ? List.copyOf(distinctIds)
+                : deleted > 0 ? removeOneByOne(distinctIds) : List.of();
+        if (removedIds.isEmpty()) {
+            throw new EmptyResultDataAccessException("No planet with ids " + distinctIds, distinctIds.size());
+        }
+        removedIds.forEach(id -> {
+            planetCache.invalidateById(id);
+            eventPublisher.publishEvent(PlanetChangeEvent.removed(id));
+        });
+        return removedIds.size();
+    }
+
+    private List<Long> removeOneByOne(Set<Long> ids) {
+        return transactionOperations.execute(status -> {
+            List<Long> removedIds = ids.stream().filter(id -> planetRepository.deletePlanetById(id) > 0).toList();
+            if (!removedIds.isEmpty()) {
+                planetChangeRepository.append(PlanetChangeEvent.Type.REMOVED, removedIds);
+            }
+            return removedIds;
+        });
     }
 }
@@ -0,0 +1,91 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+// Versions of the planets served so far, so conditional GETs can be answered without touching the database.
+@Component
+public class PlanetVersionRegistry {
+    // Distinguishes collection generations across restarts, since the counter starts over at zero.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Bounded like the by-id planet cache; an evicted version is loaded again on the next GET.
+    private final Cache<Long, PlanetVersion> versions;
+    private final AtomicReference<CollectionVersion> collection =
+            new AtomicReference<>(new CollectionVersion(epoch, 0, now()));
+    private final AtomicLong removals = new AtomicLong();
+
+    public PlanetVersionRegistry(PlanetProperties planetProperties) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(planetProperties.getCache().getMaximumSize())
+                .build();
+    }
+
+    public Optional<PlanetVersion> find(Long id) {
+        return Optional.ofNullable(versions.getIfPresent(id));
+    }
+
+    public Planet load(Long id, Function<Long, Planet> loader) {
+        long stamp = removals.get();
+        Planet planet = loader.apply(id);
+        PlanetVersion version = PlanetVersion.of(planet);
+        versions.put(id, version);
+        if (removals.get() != stamp) {
+            // A delete raced with the load: do not keep a version for a planet that may be gone.
+            versions.asMap().remove(id, version);
+        }
+        return planet;
+    }
+
+    public CollectionVersion collection() {
+        return collection.get();
+    }
+
+    @EventListener
+    public void onPlanetChange(PlanetChangeEvent event) {
+        if (event.type() == PlanetChangeEvent.Type.RESET) {
+            removals.incrementAndGet();
+            versions.invalidateAll();
+        } else if (event.type() == PlanetChangeEvent.Type.REMOVED) {
+            removals.incrementAndGet();
+            versions.invalidate(event.id());
+        } else {
+            versions.put(event.id(), PlanetVersion.of(event.planet()));
+        }
+        collection.updateAndGet(CollectionVersion::next);
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    public record PlanetVersion(Long id, long version, Instant lastModified) {
+        public static PlanetVersion of(Planet planet) {
+            return new PlanetVersion(planet.getId(), planet.getVersion(), planet.getUpdatedAt());
+        }
+
+        public String eTag() {
+            return "\"" + id + "-" + version + "\"";
+        }
+    }
+
+    public record CollectionVersion(String epoch, long generation, Instant lastModified) {
+        CollectionVersion next() {
+            return new CollectionVersion(epoch, generation + 1, now());
+        }
+
+        public String eTag() {
+            return "\"" + epoch + "-" + generation + "\"";
+        }
+    }
+}
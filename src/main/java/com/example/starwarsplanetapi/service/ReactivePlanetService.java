@@ -0,0 +1,48 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.repository.ReactivePlanetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactivePlanetService {
+    private final ReactivePlanetRepository planetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public Mono<Planet> create(Planet planet) {
+        return this.planetRepository.insert(planet)
+                .doOnNext(planetCreated -> this.eventPublisher.publishEvent(PlanetChangeEvent.created(planetCreated)));
+    }
+
+    public Flux<Planet> findPlanets(PlanetFilter filter) {
+        return this.planetRepository.findAll(filter);
+    }
+
+    public Mono<Planet> findById(Long id) {
+        return this.planetRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No value present")));
+    }
+
+    public Mono<Planet> findByName(String name) {
+        return this.planetRepository.findByName(name)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("No value present")));
+    }
+
+    public Mono<Void> removeById(Long id) {
+        return this.planetRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new EmptyResultDataAccessException(1))
+                        : Mono.<Void>fromRunnable(() -> this.eventPublisher.publishEvent(PlanetChangeEvent.removed(id))));
+    }
+}
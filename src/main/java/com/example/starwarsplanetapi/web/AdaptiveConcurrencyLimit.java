@@ -0,0 +1,92 @@
+package com.example.starwarsplanetapi.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Gradient concurrency limit: it compares the recent latency with a slow-moving baseline and shrinks the limit
+// when requests start queueing (latency above baseline * tolerance), growing it by about sqrt(limit) otherwise.
+// Acquiring never blocks, and a sample that finds another update in progress is simply skipped.
+class AdaptiveConcurrencyLimit {
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock updates = new ReentrantLock();
+    private volatile double limit;
+    // Guarded by updates.
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // Releases the slot taken by tryAcquire and feeds the request latency back into the limit.
+    void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        if (!updates.tryLock()) {
+            return;
+        }
+        try {
+            if (dropped) {
+                update(limit * BACKOFF_RATIO);
+            } else {
+                sample(rttNanos, current);
+            }
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    private void sample(long rttNanos, int inFlightAtSample) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        // After a sustained slowdown the baseline lags far behind; let it recover quickly once latency drops.
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // Only an application that actually uses its limit can prove that a higher one is safe.
+        if (inFlightAtSample < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double next = limit * gradient + Math.sqrt(limit);
+        update(limit * (1 - SMOOTHING) + next * SMOOTHING);
+    }
+
+    private void update(double next) {
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+// Sheds load before it reaches the connection pool: a per-client rate limit (429) and an adaptive concurrency limit
+// per endpoint class (503), so reads keep flowing while slow writes back off and vice versa. Rejections are
+// immediate, which keeps the latency of accepted requests bounded when the database slows down.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String METRIC_PREFIX = "planets.admission";
+
+    enum EndpointClass {
+        READ, WRITE;
+
+        static EndpointClass of(HttpServletRequest request) {
+            String method = request.getMethod();
+            return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)
+                    ? READ : WRITE;
+        }
+    }
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final ClientRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final String clientHeader;
+    private final Set<String> unlimitedPaths;
+    private final LongSupplier nanoClock;
+
+    // unlimitedPaths are long-lived requests (the change feed, exports and imports) that would otherwise hold a slot
+    // for minutes or hours and feed their duration into the latency gradient of the short requests.
+    public AdmissionControlFilter(PlanetProperties.Admission admission, MeterRegistry meterRegistry, String... unlimitedPaths) {
+        this(admission, meterRegistry, System::nanoTime, unlimitedPaths);
+    }
+
+    AdmissionControlFilter(PlanetProperties.Admission admission, MeterRegistry meterRegistry, LongSupplier nanoClock,
+                           String... unlimitedPaths) {
+        register(EndpointClass.READ, admission.getReads(), admission.getLatencyTolerance(), meterRegistry);
+        register(EndpointClass.WRITE, admission.getWrites(), admission.getLatencyTolerance(), meterRegistry);
+        PlanetProperties.RateLimit rateLimit = admission.getRateLimit();
+        this.rateLimiter = rateLimit.getRequestsPerSecond() > 0
+                ? new ClientRateLimiter(rateLimit.getRequestsPerSecond(), rateLimit.getBurst(), rateLimit.getMaxClients(), nanoClock)
+                : null;
+        this.meterRegistry = meterRegistry;
+        this.clientHeader = rateLimit.getClientHeader();
+        this.unlimitedPaths = Set.of(unlimitedPaths);
+        this.nanoClock = nanoClock;
+    }
+
+    private void register(EndpointClass endpointClass, PlanetProperties.Limit properties, double tolerance, MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), tolerance);
+        String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+        limits.put(endpointClass, limit);
+        Gauge.builder(METRIC_PREFIX + ".limit", limit, AdaptiveConcurrencyLimit::limit).tag("class", tag).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in.flight", limit, AdaptiveConcurrencyLimit::inFlight).tag("class", tag).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return unlimitedPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        if (rateLimiter != null) {
+            Duration wait = rateLimiter.tryAcquire(clientOf(request));
+            if (!wait.isZero()) {
+                reject(response, endpointClass, HttpStatus.TOO_MANY_REQUESTS, wait, "Too many requests from this client");
+                return;
+            }
+        }
+
+        AdaptiveConcurrencyLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            reject(response, endpointClass, HttpStatus.SERVICE_UNAVAILABLE, Duration.ofSeconds(1), "Too many concurrent requests");
+            return;
+        }
+
+        long startedAt = nanoClock.getAsLong();
+        boolean releaseOnComplete = false;
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(limit, startedAt));
+                releaseOnComplete = true;
+            }
+            failed = false;
+        } finally {
+            if (!releaseOnComplete) {
+                limit.release(nanoClock.getAsLong() - startedAt, failed || isServerError(response));
+            }
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String client = clientHeader == null || clientHeader.isBlank() ? null : request.getHeader(clientHeader);
+        return client == null || client.isBlank() ? request.getRemoteAddr() : client;
+    }
+
+    private void reject(HttpServletResponse response, EndpointClass endpointClass, HttpStatus status, Duration retryAfter,
+                        String message) throws IOException {
+        meterRegistry.counter(METRIC_PREFIX + ".rejected",
+                "class", endpointClass.name().toLowerCase(Locale.ROOT),
+                "status", String.valueOf(status.value())).increment();
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.sendError(status.value(), message);
+    }
+
+    private static boolean isServerError(HttpServletResponse response) {
+        return response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    private class ReleasingListener implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long startedAt;
+        private volatile boolean failed;
+
+        private ReleasingListener(AdaptiveConcurrencyLimit limit, long startedAt) {
+            this.limit = limit;
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            boolean serverError = event.getSuppliedResponse() instanceof HttpServletResponse response && isServerError(response);
+            limit.release(nanoClock.getAsLong() - startedAt, failed || serverError);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.starwarsplanetapi.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Per-client token bucket in its GCRA form: each client is a single AtomicLong holding the time at which its bucket
+// would be full again, so a request is one compare-and-set instead of a lock. Clients live in a Caffeine cache,
+// which stripes them across its segments and forgets idle ones.
+class ClientRateLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> clients;
+
+    ClientRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier nanoClock) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(burst, 1) - 1);
+        this.nanoClock = nanoClock;
+        // An idle client's bucket is full again after the burst tolerance, so it can be dropped then.
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstToleranceNanos + emissionIntervalNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    // Zero when the request is allowed, otherwise how long the client has to wait.
+    Duration tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = clients.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, now);
+            long wait = base - burstToleranceNanos - now;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (fullAt.compareAndSet(current, base + emissionIntervalNanos)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
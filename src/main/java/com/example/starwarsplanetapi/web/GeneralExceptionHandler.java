@@ -1,9 +1,13 @@
 package com.example.starwarsplanetapi.web;
 
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -15,27 +19,20 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import java.util.NoSuchElementException;
 
 @ControllerAdvice
+@Profile("!reactive")
+@RequiredArgsConstructor
 public class GeneralExceptionHandler extends ResponseEntityExceptionHandler {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
-        return super.handleMethodArgumentNotValid(ex, headers, HttpStatus.UNPROCESSABLE_ENTITY, request);
-    }
-
-    @ExceptionHandler(DataIntegrityViolationException.class)
-    private ResponseEntity<Object> handleConflict(DataIntegrityViolationException ex) {
-        return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(ex.getMessage());
-    }
-
-    @ExceptionHandler(NoSuchElementException.class)
-    private ResponseEntity<Object> handleNoSuchElement(NoSuchElementException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(ex.getMessage());
+        PlanetErrors.count(meterRegistry, PlanetErrors.INVALID, ex);
+        return super.handleMethodArgumentNotValid(ex, headers, PlanetErrors.INVALID, request);
     }
 
-    @ExceptionHandler(EmptyResultDataAccessException.class)
-    private ResponseEntity<Object> handleEmptyResultDataAccessException(EmptyResultDataAccessException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(ex.getMessage());
+    @ExceptionHandler({DataIntegrityViolationException.class, NoSuchElementException.class,
+            InvalidPlanetRequestException.class, EmptyResultDataAccessException.class})
+    private ResponseEntity<Object> handlePlanetError(Exception ex) {
+        return PlanetErrors.toResponse(ex, meterRegistry);
     }
 }
@@ -0,0 +1,21 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.service.PlanetCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "planetcache")
+@RequiredArgsConstructor
+public class PlanetCacheEndpoint {
+    private final PlanetCache planetCache;
+
+    @ReadOperation
+    public Map<String, PlanetCache.CacheStatistics> statistics() {
+        return planetCache.statistics();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Fans planet changes out to SSE subscribers. Writers only claim a sequence number, store the change in a ring
+// buffer slot and unpark the notifier; every subscriber drains the ring on its own virtual thread, so a slow client
+// only holds up itself. A subscriber that falls a whole ring behind is sent a "reset" event and disconnected.
+@Slf4j
+@Component
+public class PlanetChangeFeed implements DisposableBean {
+    static final String RESET_EVENT = "reset";
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+    private final int maxSubscribers;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+    // Sequences restart with the process, so event ids carry the epoch to reject ids from a previous run.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory subscriberThreads = Thread.ofVirtual().name("planet-changes-", 0).factory();
+    private final Thread notifier;
+    private volatile boolean closed;
+
+    public PlanetChangeFeed(ObjectMapper objectMapper, PlanetProperties planetProperties) {
+        PlanetProperties.Changes properties = planetProperties.getChanges();
+        int capacity = Integer.highestOneBit(Math.max(properties.getRingSize() - 1, 1)) << 1;
+        this.objectMapper = objectMapper;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.maxSubscribers = properties.getMaxSubscribers();
+        this.heartbeatInterval = properties.getHeartbeatInterval();
+        this.timeout = properties.getTimeout();
+        this.notifier = Thread.ofVirtual().name("planet-changes-notifier").start(this::notifySubscribers);
+    }
+
+    @EventListener
+    public void onPlanetChange(PlanetChangeEvent event) {
+        long next = sequence.incrementAndGet();
+        ring.set((int) (next & mask), new Change(next, event));
+        LockSupport.unpark(notifier);
+    }
+
+    // Empty when the subscriber limit is reached.
+    public Optional<SseEmitter> subscribe(String lastEventId) {
+        if (closed || subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, resumeFrom(lastEventId));
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::stop);
+        emitter.onTimeout(subscriber::stop);
+        emitter.onError(error -> subscriber.stop());
+        subscriberThreads.newThread(subscriber::run).start();
+        return Optional.of(emitter);
+    }
+
+    // Every writer unparks the notifier after its slot is written, so each pass wakes subscribers that may be parked
+    // on a slot claimed but not yet written when they looked. Unparks during a pass leave a permit for one more pass.
+    private void notifySubscribers() {
+        while (!closed) {
+            LockSupport.park(this);
+            subscribers.forEach(Subscriber::wakeUp);
+        }
+    }
+
+    // The first sequence the subscriber has not seen yet, or -1 when it has to resynchronize.
+    private long resumeFrom(String lastEventId) {
+        long current = sequence.get();
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return current + 1;
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            long last = Long.parseLong(lastEventId.substring(separator + 1));
+            return last <= current && current - last <= ring.length() ? last + 1 : -1;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        LockSupport.unpark(notifier);
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private final class Change {
+        private final long sequence;
+        private final PlanetChangeEvent event;
+        // Encoded by the first subscriber that sends it and shared by the rest.
+        private volatile String json;
+
+        private Change(long sequence, PlanetChangeEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        private String json() {
+            String encoded = json;
+            if (encoded == null) {
+                try {
+                    encoded = objectMapper.writeValueAsString(event);
+                } catch (JsonProcessingException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                json = encoded;
+            }
+            return encoded;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private long next;
+        private volatile Thread thread;
+        private volatile boolean stopped;
+
+        private Subscriber(SseEmitter emitter, long next) {
+            this.emitter = emitter;
+            this.next = next;
+        }
+
+        private void wakeUp() {
+            Thread waiting = thread;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            subscribers.remove(this);
+            wakeUp();
+        }
+
+        private void run() {
+            thread = Thread.currentThread();
+            try {
+                if (next < 0) {
+                    reset();
+                    return;
+                }
+                while (!stopped && !closed) {
+                    if (!drain()) {
+                        return;
+                    }
+                    if (next > sequence.get()) {
+                        LockSupport.parkNanos(this, heartbeatInterval.toNanos());
+                        if (next > sequence.get() && !stopped) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away; the emitter callbacks unregister the subscriber.
+                emitter.completeWithError(ex);
+            } finally {
+                subscribers.remove(this);
+            }
+        }
+
+        // Sends every published change from next on; false when the slot was already overwritten.
+        private boolean drain() throws IOException {
+            long published = sequence.get();
+            while (next <= published && !stopped) {
+                Change change = ring.get((int) (next & mask));
+                if (change == null || change.sequence < next) {
+                    // Sequence claimed but the slot is not written yet; the notifier wakes us once it is.
+                    LockSupport.parkNanos(this, heartbeatInterval.toNanos());
+                    continue;
+                }
+                if (change.sequence > next) {
+                    reset();
+                    return false;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(eventId(next))
+                        .name(change.event.type().name().toLowerCase(Locale.ROOT))
+                        .data(change.json(), MediaType.APPLICATION_JSON));
+                next++;
+            }
+            return true;
+        }
+
+        private void reset() throws IOException {
+            log.debug("Change feed subscriber is too far behind, asking it to resynchronize");
+            emitter.send(SseEmitter.event().id(eventId(sequence.get())).name(RESET_EVENT).data("{}", MediaType.APPLICATION_JSON));
+            emitter.complete();
+        }
+    }
+}
@@ -1,47 +1,189 @@
 package com.example.starwarsplanetapi.web;
 
 import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetBatchItem;
+import com.example.starwarsplanetapi.domain.PlanetFacets;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.domain.PlanetImportReport;
+import com.example.starwarsplanetapi.service.PlanetFacetIndex;
+import com.example.starwarsplanetapi.service.PlanetImporter;
+import com.example.starwarsplanetapi.service.PlanetNameIndex;
 import com.example.starwarsplanetapi.service.PlanetService;
+import com.example.starwarsplanetapi.service.PlanetVersionRegistry;
+import com.example.starwarsplanetapi.service.PlanetVersionRegistry.CollectionVersion;
+import com.example.starwarsplanetapi.service.PlanetVersionRegistry.PlanetVersion;
+import com.example.starwarsplanetapi.web.PlanetDocumentCache.PlanetDocument;
+import com.example.starwarsplanetapi.web.PlanetDocumentCache.Versioned;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(value = "/planets", produces = {"application/json"})
 @RequiredArgsConstructor
 public class PlanetController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final String CHANGES_PATH = "/changes";
+    public static final String EXPORT_PATH = "/export";
+    public static final String IMPORT_PATH = "/import";
+    private static final String GZIP_TAG_SUFFIX = "-gzip";
 
     private final PlanetService planetService;
+    private final PlanetFacetIndex planetFacetIndex;
+    private final PlanetNameIndex planetNameIndex;
+    private final PlanetVersionRegistry planetVersionRegistry;
+    private final PlanetDocumentCache planetDocumentCache;
+    private final PlanetImporter planetImporter;
+    private final PlanetChangeFeed planetChangeFeed;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(value = "/", produces = {"application/json"})
-    public ResponseEntity<List<Planet>> getPlanets(@RequestParam(name = "climate", required = false) String climate,
-                                                   @RequestParam(name = "terrain", required = false) String terrain) {
-        List<Planet> planetsFounded = planetService.findPlanets(climate, terrain);
+    public ResponseEntity<?> getPlanets(@RequestParam(name = "climate", required = false) String climate,
+                                        @RequestParam(name = "terrain", required = false) String terrain,
+                                        @RequestParam(name = "match", required = false) String match,
+                                        @RequestParam(name = "limit", required = false) Integer limit,
+                                        @RequestParam(name = "cursor", required = false) String cursor,
+                                        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PlanetFilter filter = new PlanetFilter(climate, terrain, PlanetFilter.Match.from(match));
+        CollectionVersion version = planetVersionRegistry.collection();
+        String matched = matchingTag(ifNoneMatch, version.eTag());
+        if (matched != null) {
+            return notModified(matched, version.lastModified());
+        }
+        if (limit == null && cursor == null) {
+            PlanetDocument planetsFounded = planetDocumentCache.list(filter,
+                    () -> new Versioned(planetService.findPlanets(filter), version.eTag(), version.lastModified()));
+            return document(planetsFounded, acceptEncoding);
+        }
+
+        int pageSize = Math.min(Math.max(limit == null ? DEFAULT_PAGE_SIZE : limit, 1), MAX_PAGE_SIZE);
+        Window<Planet> page = planetService.findPlanets(filter, PlanetCursor.decode(cursor), pageSize);
+        ResponseEntity.BodyBuilder response = withValidators(ResponseEntity.ok(), version.eTag(), version.lastModified());
+        if (page.hasNext() && !page.isEmpty()) {
+            String nextCursor = PlanetCursor.encode(page.positionAt(page.size() - 1));
+            String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("limit", pageSize)
+                    .replaceQueryParam("cursor", nextCursor)
+                    .build()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, nextCursor)
+                    .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+        }
+        return response.body(page.getContent());
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<PlanetFacets> getFacets(@RequestParam(name = "climate", required = false) String climate,
+                                                  @RequestParam(name = "terrain", required = false) String terrain,
+                                                  @RequestParam(name = "match", required = false) String match) {
+        PlanetFacets facets = planetFacetIndex.facets(new PlanetFilter(climate, terrain, PlanetFilter.Match.from(match)));
+        return ResponseEntity.ok(facets);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Planet>> search(@RequestParam(name = "q") String query,
+                                               @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        List<Planet> planetsFounded = planetNameIndex.search(query, limit);
         return ResponseEntity.ok(planetsFounded);
     }
 
+    @GetMapping(value = EXPORT_PATH, produces = {MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                planetService.exportPlanets(planet -> {
+                    try {
+                        writer.writeValue(generator, planet);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = CHANGES_PATH, produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<SseEmitter> changes(@RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return planetChangeFeed.subscribe(lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build());
+    }
+
     @PostMapping
     public ResponseEntity<Planet> create(@Valid @RequestBody Planet planet) {
         Planet planetCreated = planetService.create(planet);
         return ResponseEntity.status(HttpStatus.CREATED).body(planetCreated);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<PlanetBatchItem>> createAll(@RequestBody List<Planet> planets) {
+        List<PlanetBatchItem> results = planetService.createAll(planets);
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping(value = IMPORT_PATH, consumes = {"application/json"})
+    public ResponseEntity<PlanetImportReport> importPlanets(InputStream json) throws IOException {
+        PlanetImportReport report = planetImporter.importPlanets(json);
+        return ResponseEntity.ok(report);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Planet> getById(@PathVariable Long id) {
-        Planet planetFounded = planetService.findById(id);
-        return ResponseEntity.status(HttpStatus.OK).body(planetFounded);
+    public ResponseEntity<byte[]> getById(@PathVariable Long id,
+                                          @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<PlanetVersion> known = planetVersionRegistry.find(id);
+        String matched = known.map(version -> matchingTag(ifNoneMatch, version.eTag())).orElse(null);
+        if (matched != null) {
+            return notModified(matched, known.get().lastModified());
+        }
+        PlanetDocument planetFounded = planetDocumentCache.planet(id, () -> {
+            Planet planet = planetVersionRegistry.load(id, planetService::findById);
+            PlanetVersion version = PlanetVersion.of(planet);
+            return new Versioned(planet, version.eTag(), version.lastModified());
+        });
+        return document(planetFounded, acceptEncoding);
 
     }
 
+    // Versions are known by id, so the planet is resolved first (usually from the cache) and only the body is saved.
     @GetMapping("/name/{name}")
-    public ResponseEntity<Planet> getByName(@PathVariable String name) {
+    public ResponseEntity<Planet> getByName(@PathVariable String name,
+                                            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Planet planetFounded = planetService.findByName(name);
-        return ResponseEntity.status(HttpStatus.OK).body(planetFounded);
+        PlanetVersion version = PlanetVersion.of(planetFounded);
+        if (matchingTag(ifNoneMatch, version.eTag()) != null) {
+            return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version.eTag(), version.lastModified()).build();
+        }
+        return withValidators(ResponseEntity.status(HttpStatus.OK), version.eTag(), version.lastModified()).body(planetFounded);
 
     }
 
@@ -51,4 +193,77 @@ public class PlanetController {
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Planet> removeAllById(@RequestParam(name = "ids") List<Long> ids) {
+        this.planetService.removeAllById(ids);
+        return ResponseEntity.noContent().build();
+    }
+
+    // The gzip body gets its own strong validator, so caches and range requests never mix it with the identity body.
+    private static ResponseEntity<byte[]> document(PlanetDocument document, String acceptEncoding) {
+        boolean gzip = document.gzip() != null && acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = withValidators(ResponseEntity.ok(),
+                gzip ? gzipTag(document.eTag()) : document.eTag(), document.lastModified())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.gzip());
+        }
+        return response.body(document.json());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag, Instant lastModified) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, lastModified)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    private static String gzipTag(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_TAG_SUFFIX + "\"";
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            boolean disabled = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            if (parts[0].trim().equalsIgnoreCase("gzip") && !disabled) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the variant tag (identity or gzip) of eTag that If-None-Match lists, or null. The comparison is weak,
+    // so a W/ prefixed tag from an intermediary still matches.
+    private static String matchingTag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String gzipTag = gzipTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return eTag;
+            }
+            if (tag.equals(gzipTag)) {
+                return gzipTag;
+            }
+        }
+        return null;
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, String eTag, Instant lastModified) {
+        response.eTag(eTag);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+
 }
@@ -0,0 +1,34 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+public class PlanetCursor {
+    private static final String ID = "id";
+
+    private PlanetCursor() {
+    }
+
+    public static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return ScrollPosition.forward(Map.of(ID, Long.parseLong(id)));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidPlanetRequestException("Invalid cursor: " + cursor, ex);
+        }
+    }
+
+    public static String encode(ScrollPosition position) {
+        Object id = ((KeysetScrollPosition) position).getKeys().get(ID);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Planet and list responses encoded once to UTF-8 JSON (and gzip when large enough) and served as raw bytes.
+@Component
+public class PlanetDocumentCache {
+    private final ObjectMapper objectMapper;
+    private final int compressionThreshold;
+    private final Cache<Long, PlanetDocument> planets;
+    private final Cache<PlanetFilter, PlanetDocument> lists;
+    // Bumped on every change so a document encoded from data read before the change is never stored.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PlanetDocumentCache(ObjectMapper objectMapper, PlanetProperties planetProperties) {
+        PlanetProperties.Documents properties = planetProperties.getDocuments();
+        this.objectMapper = objectMapper;
+        this.compressionThreshold = properties.getCompressionThreshold();
+        this.planets = newCache(properties);
+        this.lists = newCache(properties);
+    }
+
+    private static <K> Cache<K, PlanetDocument> newCache(PlanetProperties.Documents properties) {
+        return Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight())
+                .weigher((K key, PlanetDocument document) -> document.weight())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+    }
+
+    public PlanetDocument planet(Long id, Supplier<Versioned> loader) {
+        PlanetDocument cached = planets.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = invalidations.get();
+        PlanetDocument document = encode(loader.get());
+        if (invalidations.get() == stamp) {
+            planets.put(id, document);
+        }
+        return document;
+    }
+
+    public PlanetDocument list(PlanetFilter filter, Supplier<Versioned> loader) {
+        PlanetDocument cached = lists.getIfPresent(filter);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = invalidations.get();
+        PlanetDocument document = encode(loader.get());
+        if (invalidations.get() == stamp) {
+            lists.put(filter, document);
+        }
+        return document;
+    }
+
+    @EventListener
+    public void onPlanetChange(PlanetChangeEvent event) {
+        if (event.type() == PlanetChangeEvent.Type.RESET) {
+            invalidateAll();
+            return;
+        }
+        invalidations.incrementAndGet();
+        planets.invalidate(event.id());
+        lists.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        planets.invalidateAll();
+        lists.invalidateAll();
+    }
+
+    private PlanetDocument encode(Versioned versioned) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(versioned.value());
+            byte[] gzip = json.length >= compressionThreshold ? gzip(json) : null;
+            return new PlanetDocument(json, gzip, versioned.eTag(), versioned.lastModified());
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    public record Versioned(Object value, String eTag, Instant lastModified) {
+    }
+
+    public record PlanetDocument(byte[] json, byte[] gzip, String eTag, Instant lastModified) {
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Status mapping shared by the servlet and the reactive exception handlers.
+final class PlanetErrors {
+    private static final String ERRORS_METRIC = "planets.errors";
+    private static final Map<Class<?>, HttpStatus> STATUSES = Map.of(
+            DataIntegrityViolationException.class, HttpStatus.CONFLICT,
+            NoSuchElementException.class, HttpStatus.NOT_FOUND,
+            EmptyResultDataAccessException.class, HttpStatus.NOT_FOUND,
+            InvalidPlanetRequestException.class, HttpStatus.BAD_REQUEST);
+
+    static final HttpStatus INVALID = HttpStatus.UNPROCESSABLE_ENTITY;
+
+    private PlanetErrors() {
+    }
+
+    static ResponseEntity<Object> toResponse(Exception ex, ObjectProvider<MeterRegistry> meterRegistry) {
+        HttpStatus status = statusOf(ex);
+        count(meterRegistry, status, ex);
+        return ResponseEntity.status(status)
+                .body(ex.getMessage());
+    }
+
+    static void count(ObjectProvider<MeterRegistry> meterRegistry, HttpStatus status, Exception ex) {
+        meterRegistry.ifUnique(registry -> registry.counter(ERRORS_METRIC,
+                "status", String.valueOf(status.value()),
+                "exception", ex.getClass().getSimpleName()).increment());
+    }
+
+    private static HttpStatus statusOf(Exception ex) {
+        for (Class<?> type = ex.getClass(); type != null; type = type.getSuperclass()) {
+            HttpStatus status = STATUSES.get(type);
+            if (status != null) {
+                return status;
+            }
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+
+@ControllerAdvice
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveExceptionHandler extends ResponseEntityExceptionHandler {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    protected Mono<ResponseEntity<Object>> handleWebExchangeBindException(WebExchangeBindException ex, HttpHeaders headers, HttpStatusCode status, ServerWebExchange exchange) {
+        PlanetErrors.count(meterRegistry, PlanetErrors.INVALID, ex);
+        return super.handleWebExchangeBindException(ex, headers, PlanetErrors.INVALID, exchange);
+    }
+
+    @ExceptionHandler({DataIntegrityViolationException.class, NoSuchElementException.class,
+            InvalidPlanetRequestException.class, EmptyResultDataAccessException.class})
+    private ResponseEntity<Object> handlePlanetError(Exception ex) {
+        return PlanetErrors.toResponse(ex, meterRegistry);
+    }
+}
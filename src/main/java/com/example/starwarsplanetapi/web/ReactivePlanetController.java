@@ -0,0 +1,52 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.service.ReactivePlanetService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Same /planets contract as PlanetController on WebFlux; the list is streamed row by row as the client reads it.
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/planets", produces = {"application/json"})
+@RequiredArgsConstructor
+public class ReactivePlanetController {
+    private final ReactivePlanetService planetService;
+
+    @GetMapping(value = "/", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Planet> getPlanets(@RequestParam(name = "climate", required = false) String climate,
+                                   @RequestParam(name = "terrain", required = false) String terrain,
+                                   @RequestParam(name = "match", required = false) String match) {
+        return planetService.findPlanets(new PlanetFilter(climate, terrain, PlanetFilter.Match.from(match)));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Planet>> create(@Valid @RequestBody Planet planet) {
+        return planetService.create(planet)
+                .map(planetCreated -> ResponseEntity.status(HttpStatus.CREATED).body(planetCreated));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Planet> getById(@PathVariable Long id) {
+        return planetService.findById(id);
+    }
+
+    @GetMapping("/name/{name}")
+    public Mono<Planet> getByName(@PathVariable String name) {
+        return planetService.findByName(name);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> removeById(@PathVariable Long id) {
+        return planetService.removeById(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,22 @@
+ALTER TABLE planets ADD COLUMN climate_key VARCHAR(255);
+ALTER TABLE planets ADD COLUMN terrain_key VARCHAR(255);
+ALTER TABLE planets ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE planets ADD COLUMN updated_at TIMESTAMP(6) NULL;
+CREATE INDEX idx_planets_climate_terrain ON planets (climate_key, terrain_key);
+CREATE INDEX idx_planets_terrain ON planets (terrain_key);
+
+CREATE TABLE planet_climate (
+    planet_id BIGINT NOT NULL,
+    token VARCHAR(255) NOT NULL,
+    PRIMARY KEY (planet_id, token),
+    CONSTRAINT fk_planet_climate_planet FOREIGN KEY (planet_id) REFERENCES planets (id)
+);
+CREATE INDEX idx_planet_climate_token ON planet_climate (token, planet_id);
+
+CREATE TABLE planet_terrain (
+    planet_id BIGINT NOT NULL,
+    token VARCHAR(255) NOT NULL,
+    PRIMARY KEY (planet_id, token),
+    CONSTRAINT fk_planet_terrain_planet FOREIGN KEY (planet_id) REFERENCES planets (id)
+);
+CREATE INDEX idx_planet_terrain_token ON planet_terrain (token, planet_id);
@@ -0,0 +1,9 @@
+-- The table Hibernate's ddl-auto used to create; databases that already have it are baselined at version 0 and kept.
+CREATE TABLE IF NOT EXISTS planets (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    climate VARCHAR(255) NOT NULL,
+    terrain VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_planets_name UNIQUE (name)
+);
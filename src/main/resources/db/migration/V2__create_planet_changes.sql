@@ -0,0 +1,10 @@
+-- Change log tailed by every node to keep its in-process caches coherent; entries are pruned after a retention period.
+CREATE TABLE planet_changes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    planet_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    origin VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_planet_changes_created_at ON planet_changes (created_at);
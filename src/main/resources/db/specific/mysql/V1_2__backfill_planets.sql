@@ -0,0 +1,20 @@
+UPDATE planets SET climate_key = LOWER(climate), terrain_key = LOWER(terrain) WHERE climate_key IS NULL OR terrain_key IS NULL;
+UPDATE planets SET updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL;
+INSERT INTO planet_climate (planet_id, token)
+WITH RECURSIVE split (planet_id, token, rest) AS (
+    SELECT id, TRIM(SUBSTRING_INDEX(climate_key, ',', 1)), IF(LOCATE(',', climate_key) > 0, SUBSTRING(climate_key, LOCATE(',', climate_key) + 1), NULL)
+    FROM planets p WHERE NOT EXISTS (SELECT 1 FROM planet_climate c WHERE c.planet_id = p.id)
+    UNION ALL
+    SELECT planet_id, TRIM(SUBSTRING_INDEX(rest, ',', 1)), IF(LOCATE(',', rest) > 0, SUBSTRING(rest, LOCATE(',', rest) + 1), NULL)
+    FROM split WHERE rest IS NOT NULL
+)
+SELECT DISTINCT planet_id, token FROM split WHERE token <> '';
+INSERT INTO planet_terrain (planet_id, token)
+WITH RECURSIVE split (planet_id, token, rest) AS (
+    SELECT id, TRIM(SUBSTRING_INDEX(terrain_key, ',', 1)), IF(LOCATE(',', terrain_key) > 0, SUBSTRING(terrain_key, LOCATE(',', terrain_key) + 1), NULL)
+    FROM planets p WHERE NOT EXISTS (SELECT 1 FROM planet_terrain t WHERE t.planet_id = p.id)
+    UNION ALL
+    SELECT planet_id, TRIM(SUBSTRING_INDEX(rest, ',', 1)), IF(LOCATE(',', rest) > 0, SUBSTRING(rest, LOCATE(',', rest) + 1), NULL)
+    FROM split WHERE rest IS NOT NULL
+)
+SELECT DISTINCT planet_id, token FROM split WHERE token <> '';
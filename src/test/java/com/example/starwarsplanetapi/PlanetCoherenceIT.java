@@ -0,0 +1,87 @@
+package com.example.starwarsplanetapi;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import com.example.starwarsplanetapi.service.PlanetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dois nós da aplicação compartilhando o mesmo banco H2, cada um com seus caches locais
+public class PlanetCoherenceIT {
+    private static final String DATABASE = "jdbc:h2:mem:coherence;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;MODE=MySQL";
+
+    @Test
+    public void removePlanet_OnOneNode_EvictsItFromTheOtherNodeCache() {
+        try (ConfigurableApplicationContext first = node(); ConfigurableApplicationContext second = node()) {
+            PlanetService firstService = first.getBean(PlanetService.class);
+            PlanetService secondService = second.getBean(PlanetService.class);
+            Planet created = firstService.create(new Planet("Dagobah", "murky", "swamp, jungles"));
+
+            // o segundo nó guarda o planeta no cache local antes da remoção
+            assertThat(secondService.findById(created.getId()).getName()).isEqualTo("Dagobah");
+            firstService.removeById(created.getId());
+
+            await(() -> isRemoved(secondService, created.getId()));
+        }
+    }
+
+    @Test
+    public void createPlanet_OnOneNode_IsAnnouncedOnTheOtherNode() {
+        try (ConfigurableApplicationContext first = node(); ConfigurableApplicationContext second = node()) {
+            List<PlanetChangeEvent> received = new CopyOnWriteArrayList<>();
+            second.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+                if (event instanceof PayloadApplicationEvent<?> payload && payload.getPayload() instanceof PlanetChangeEvent change) {
+                    received.add(change);
+                }
+            });
+
+            Planet created = first.getBean(PlanetService.class).create(new Planet("Bespin", "temperate", "gas giant"));
+
+            await(() -> received.stream().anyMatch(event -> event.type() == PlanetChangeEvent.Type.CREATED
+                    && created.getId().equals(event.id())
+                    && "Bespin".equals(event.planet().getName())));
+            // limpa o banco compartilhado pelos testes
+            first.getBean(PlanetService.class).removeById(created.getId());
+        }
+    }
+
+    private static ConfigurableApplicationContext node() {
+        return new SpringApplicationBuilder(StarWarsPlanetApiApplication.class)
+                .properties("server.port=0", "spring.datasource.url=" + DATABASE, "planets.coherence.poll-interval=50ms")
+                .run();
+    }
+
+    private static boolean isRemoved(PlanetService planetService, Long id) {
+        try {
+            planetService.findById(id);
+            return false;
+        } catch (NoSuchElementException ex) {
+            return true;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.starwarsplanetapi;
 
 import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFacets;
+import com.example.starwarsplanetapi.service.PlanetFacetIndex;
+import io.r2dbc.spi.ConnectionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +27,10 @@ public class PlanetIT {
 
     @Autowired
     private TestRestTemplate restTemplate;
+    @Autowired
+    private PlanetFacetIndex planetFacetIndex;
+    @Autowired
+    private ApplicationContext applicationContext;
 
 
     @Test
@@ -79,9 +87,29 @@ public class PlanetIT {
         assertThat(sut.getBody()[0]).isEqualTo(PLANET_TATOOINE);
     }
 
+    @Test
+    public void getFacets_WithFilter_CountsSamePlanetsAsList() {
+        // o script SQL não passa pelo serviço, então o índice é recarregado a partir do banco
+        planetFacetIndex.load();
+
+        for (String query : new String[]{"", "?climate=temperate", "?climate=TEMPERATE", "?terrain=desert",
+                "?climate=temperate&match=all", "?climate=arid,tropical&match=any", "?climate=temperate&terrain=jungle&match=all"}) {
+            Planet[] planets = restTemplate.getForEntity("/planets/" + query, Planet[].class).getBody();
+            PlanetFacets facets = restTemplate.getForEntity("/planets/facets" + query, PlanetFacets.class).getBody();
+
+            assertThat(facets.total()).as(query).isEqualTo(planets.length);
+        }
+    }
+
     @Test
     public void deletePlanet_ReturnNoContent() {
       ResponseEntity<Void> sut = restTemplate.exchange("/planets/"+PLANET_TATOOINE.getId(), HttpMethod.DELETE, null, Void.class);
       assertThat(sut.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
+
+    @Test
+    public void servletStack_DoesNotCreateR2dbcConnectionFactory() {
+        // sem o profile reactive não há pool R2DBC nem health check dele
+        assertThat(applicationContext.getBeanNamesForType(ConnectionFactory.class)).isEmpty();
+    }
 }
@@ -0,0 +1,120 @@
+package com.example.starwarsplanetapi;
+
+import jdk.jfr.consumer.RecordedFrame;
+import lombok.extern.slf4j.Slf4j;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compara throughput e latência p99 entre threads de plataforma e virtuais: mvn verify -Pload
+@Slf4j
+@Tag("load")
+public class PlanetLoadIT {
+    private static final int REQUESTS = 5_000;
+    private static final int CONCURRENCY = 500;
+    private static final List<String> JDBC_PACKAGES = List.of("com.mysql.", "com.zaxxer.hikari.", "org.hibernate.");
+
+    @Test
+    public void listPlanets_UnderLoad_ComparesThreadingModes() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        log.info("{}", platform);
+        log.info("{}", virtual);
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(virtual.pinnedInJdbc()).isZero();
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        AtomicInteger pinnedInJdbc = new AtomicInteger();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StarWarsPlanetApiApplication.class)
+                .profiles("it")
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + virtualThreads)
+                .run();
+             RecordingStream recording = new RecordingStream()) {
+            new ResourceDatabasePopulator(new ClassPathResource("import_script.sql"))
+                    .execute(context.getBean(DataSource.class));
+
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                        .map(RecordedFrame::getMethod)
+                        .anyMatch(method -> JDBC_PACKAGES.stream().anyMatch(method.getType().getName()::startsWith))) {
+                    pinnedInJdbc.incrementAndGet();
+                }
+            });
+            recording.startAsync();
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/planets/?climate=arid")).build();
+            return fire(virtualThreads ? "virtual" : "platform", request, pinnedInJdbc);
+        }
+    }
+
+    private LoadResult fire(String mode, HttpRequest request, AtomicInteger pinnedInJdbc) throws Exception {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+
+        long start = System.nanoTime();
+        try (HttpClient client = HttpClient.newHttpClient();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                        } else if (status != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - sent;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new LoadResult(mode, REQUESTS * 1_000_000_000.0 / elapsed,
+                Duration.ofNanos(latencies[(int) Math.ceil(REQUESTS * 0.99) - 1]),
+                rejected.get(), errors.get(), pinnedInJdbc.get());
+    }
+
+    private record LoadResult(String mode, double throughput, Duration p99, int rejected, int errors, int pinnedInJdbc) {
+        @Override
+        public String toString() {
+            return String.format("%-8s throughput=%.1f req/s p99=%d ms rejected=%d errors=%d pinnedInJdbc=%d",
+                    mode, throughput, p99.toMillis(), rejected, errors, pinnedInJdbc);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.starwarsplanetapi;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.service.PlanetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Um banco criado antes das migrações, só com a tabela que o ddl-auto do Hibernate gerava
+@Testcontainers
+public class PlanetMigrationIT {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Test
+    public void startApplication_OnDatabaseCreatedBeforeMigrations_UpgradesAndBackfillsPlanets() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword()));
+        jdbcTemplate.execute("create table planets (id bigint not null auto_increment, climate varchar(255) not null, "
+                + "name varchar(255) not null, terrain varchar(255) not null, primary key (id)) engine=InnoDB");
+        jdbcTemplate.execute("alter table planets add constraint UK_planets_name unique (name)");
+        jdbcTemplate.update("insert into planets (name, climate, terrain) values ('Yavin IV', 'Temperate, tropical', 'jungle, rainforests')");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StarWarsPlanetApiApplication.class)
+                .profiles("it")
+                .properties("server.port=0", "spring.datasource.url=" + MYSQL.getJdbcUrl(),
+                        "spring.datasource.username=" + MYSQL.getUsername(), "spring.datasource.password=" + MYSQL.getPassword())
+                .run()) {
+            // o Hibernate valida o schema atualizado e o planeta antigo continua legível
+            Planet planet = context.getBean(PlanetService.class).findByName("Yavin IV");
+
+            assertThat(planet.getClimate()).isEqualTo("Temperate, tropical");
+            assertThat(planet.getClimateKey()).isEqualTo("temperate, tropical");
+            assertThat(planet.getUpdatedAt()).isNotNull();
+            assertThat(jdbcTemplate.queryForList("select token from planet_climate where planet_id = ? order by token", String.class, planet.getId()))
+                    .containsExactly("temperate", "tropical");
+            assertThat(jdbcTemplate.queryForList("select token from planet_terrain where planet_id = ? order by token", String.class, planet.getId()))
+                    .containsExactly("jungle", "rainforests");
+        }
+    }
+}
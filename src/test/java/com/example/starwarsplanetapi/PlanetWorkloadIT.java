@@ -0,0 +1,167 @@
+package com.example.starwarsplanetapi;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANETS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Carga mista contra o H2 local: mvn verify -Pload -Dload.concurrency=64 -Dload.requests=20000 -Dload.max-p99-ms=150
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql(scripts = {"/import_script.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/remove_planets_script.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class PlanetWorkloadIT {
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 32);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 10_000);
+    private static final long MAX_P99_MS = Long.getLong("load.max-p99-ms", 200);
+    private static final long MAX_P999_MS = Long.getLong("load.max-p999-ms", 500);
+    private static final double MIN_THROUGHPUT = Double.parseDouble(System.getProperty("load.min-throughput", "100"));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0"));
+    private static final Path REPORT_DIR = Path.of("target", "load");
+
+    private enum Operation {
+        CREATE(10), LIST(30), BY_ID(30), BY_NAME(20), DELETE(10);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick() {
+            int roll = ThreadLocalRandom.current().nextInt(100);
+            for (Operation operation : values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return BY_ID;
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    @Test
+    public void mixedWorkload_StaysWithinThresholds() throws Exception {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+        }
+        AtomicInteger remaining = new AtomicInteger(REQUESTS);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        execute(Operation.pick());
+                    }
+                });
+            }
+        }
+        double throughput = REQUESTS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        histograms.values().forEach(total::add);
+        report(throughput, total);
+
+        assertThat(throughput).isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+        assertThat(errors.get() / (double) REQUESTS).isLessThanOrEqualTo(MAX_ERROR_RATE);
+        assertThat(total.getValueAtPercentile(99) / 1000).isLessThanOrEqualTo(MAX_P99_MS);
+        assertThat(total.getValueAtPercentile(99.9) / 1000).isLessThanOrEqualTo(MAX_P999_MS);
+    }
+
+    private void execute(Operation operation) {
+        long start = System.nanoTime();
+        ResponseEntity<?> response = switch (operation) {
+            case CREATE -> create();
+            case LIST -> restTemplate.getForEntity("/planets/?climate=temperate", Planet[].class);
+            case BY_ID -> restTemplate.getForEntity("/planets/" + randomPlanet().getId(), Planet.class);
+            case BY_NAME -> restTemplate.getForEntity("/planets/name/" + randomPlanet().getName(), Planet.class);
+            case DELETE -> delete();
+        };
+        histograms.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private ResponseEntity<Planet> create() {
+        Planet planet = new Planet("Load " + sequence.incrementAndGet(), "temperate", "grasslands");
+        ResponseEntity<Planet> response = restTemplate.postForEntity("/planets", planet, Planet.class);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            createdIds.add(response.getBody().getId());
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> delete() {
+        Long id = createdIds.poll();
+        if (id == null) {
+            return create();
+        }
+        return restTemplate.exchange("/planets/" + id, HttpMethod.DELETE, null, Void.class);
+    }
+
+    private static Planet randomPlanet() {
+        return PLANETS.get(ThreadLocalRandom.current().nextInt(PLANETS.size()));
+    }
+
+    // Resumo em target/load/summary.txt e a distribuição completa de cada operação em target/load/<op>.hgrm
+    private void report(double throughput, Histogram total) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        Path summary = REPORT_DIR.resolve("summary.txt");
+        try (PrintStream out = new PrintStream(summary.toFile())) {
+            out.printf("throughput=%.1f req/s errors=%d concurrency=%d%n", throughput, errors.get(), CONCURRENCY);
+            out.printf("%-8s %8s %8s %8s %8s %8s%n", "op", "count", "p50 ms", "p95 ms", "p99 ms", "p999 ms");
+            histograms.forEach((operation, histogram) -> print(out, operation.name(), histogram));
+            print(out, "TOTAL", total);
+        }
+
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(REPORT_DIR.resolve(entry.getKey().name().toLowerCase() + ".hgrm").toFile())) {
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        log.info("Workload report written to {}", summary.toAbsolutePath());
+    }
+
+    private static void print(PrintStream out, String name, Histogram histogram) {
+        out.printf("%-8s %8d %8.2f %8.2f %8.2f %8.2f%n", name, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0);
+    }
+}
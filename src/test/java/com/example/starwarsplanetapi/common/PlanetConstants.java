@@ -1,6 +1,7 @@
 package com.example.starwarsplanetapi.common;
 
 import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.repository.PlanetRow;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,4 +23,13 @@ public class PlanetConstants {
     public static final Planet INVALID_PLANET = new Planet("", "", "");
     public static final Planet EMPTY_PLANET = new Planet();
     public static final List<Planet> LIST_OF_PLANETS = Arrays.asList(PLANET_TATOOINE, PLANET_ALDERAAN, PLANET_HOTH);
+
+    public static PlanetRow rowOf(Planet planet) {
+        return new PlanetRow(planet.getId(), planet.getName(), planet.getClimate(), planet.getTerrain(),
+                planet.getVersion(), planet.getUpdatedAt());
+    }
+
+    public static List<PlanetRow> rowsOf(List<Planet> planets) {
+        return planets.stream().map(PlanetConstants::rowOf).toList();
+    }
 }
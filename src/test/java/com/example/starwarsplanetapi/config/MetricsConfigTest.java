@@ -0,0 +1,45 @@
+package com.example.starwarsplanetapi.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsConfigTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void planetByIdSloFilter_OnPlanetByIdRequests_PublishesSloBuckets() {
+        registry.config().meterFilter(new MetricsConfig().planetByIdSloFilter(new PlanetProperties()));
+
+        Timer byId = timer("/planets/{id}");
+        Timer list = timer("/planets/");
+        byId.record(Duration.ofMillis(30));
+        list.record(Duration.ofMillis(30));
+
+        // 25, 50 e 100 ms são os SLOs padrão de planets.metrics.by-id-slo
+        assertThat(Arrays.stream(byId.takeSnapshot().histogramCounts()).map(bucket -> bucket.bucket(TimeUnit.MILLISECONDS)))
+                .contains(25.0, 50.0, 100.0);
+        assertThat(countAt(byId, 25)).isZero();
+        assertThat(countAt(byId, 50)).isEqualTo(1);
+        assertThat(list.takeSnapshot().histogramCounts()).isEmpty();
+    }
+
+    private Timer timer(String uri) {
+        return Timer.builder("http.server.requests").tags("uri", uri, "method", "GET").register(registry);
+    }
+
+    private static double countAt(Timer timer, double millis) {
+        return Arrays.stream(timer.takeSnapshot().histogramCounts())
+                .filter(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) == millis)
+                .mapToDouble(CountAtBucket::count)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.starwarsplanetapi.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaRoutingDataSourceTest {
+    private final DataSource primary = h2("primary");
+    private final DataSource replica = h2("replica");
+
+    @Test
+    public void readOnlyTransaction_RoutesToReplica() {
+        ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ZERO, Duration.ofMinutes(1));
+
+        assertThat(readSource(sut, true)).isEqualTo("replica");
+        assertThat(readSource(sut, false)).isEqualTo("primary");
+    }
+
+    @Test
+    public void readOnlyTransaction_AfterWrite_RoutesToPrimary() {
+        ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        readSource(sut, false);
+
+        // Dentro da janela de read-your-writes a leitura continua no primário
+        assertThat(readSource(sut, true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void readOnlyTransaction_AfterLongWrite_WindowStartsAtCommit() {
+        ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMillis(200), Duration.ofMinutes(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(sut);
+
+        // A transação de escrita dura mais que a janela inteira
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            new JdbcTemplate(dataSource).queryForObject("SELECT name FROM routing_target", String.class);
+            sleep(Duration.ofMillis(300));
+        });
+
+        assertThat(readSource(sut, true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void readOnlyTransaction_AfterRolledBackWrite_RoutesToReplica() {
+        ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofMinutes(1));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(sut);
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            new JdbcTemplate(dataSource).queryForObject("SELECT name FROM routing_target", String.class);
+            status.setRollbackOnly();
+        });
+
+        assertThat(readSource(sut, true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void readOnlyTransaction_AfterRecordedWrite_RoutesToPrimary() {
+        ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMillis(200), Duration.ofMinutes(1));
+
+        // uma escrita de outro nó, vista no log de mudanças
+        sut.recordWrite();
+
+        assertThat(readSource(sut, true)).isEqualTo("primary");
+        sleep(Duration.ofMillis(300));
+        assertThat(readSource(sut, true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void getConnection_WithCredentials_UsesPrimary() throws SQLException {
+        ReplicaRoutingDataSource sut = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ZERO, Duration.ofMinutes(1));
+
+        try (Connection connection = sut.getConnection("sa", "")) {
+            assertThat(new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM routing_target", String.class)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    public void readOnlyTransaction_WithUnavailableReplica_FallsBackToPrimary() {
+        DataSource unavailable = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unavailable");
+        ReplicaRoutingDataSource onlyUnavailable = new ReplicaRoutingDataSource(primary, List.of(unavailable), Duration.ZERO, Duration.ofMinutes(1));
+        ReplicaRoutingDataSource withHealthyReplica = new ReplicaRoutingDataSource(primary, List.of(unavailable, replica), Duration.ZERO, Duration.ofMinutes(1));
+
+        assertThat(readSource(onlyUnavailable, true)).isEqualTo("primary");
+        // A réplica indisponível é pulada e a leitura vai para a próxima réplica saudável
+        assertThat(readSource(withHealthyReplica, true)).isEqualTo("replica");
+        assertThat(readSource(withHealthyReplica, true)).isEqualTo("replica");
+    }
+
+    private static String readSource(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM routing_target", String.class));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static DataSource h2(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS routing_target; CREATE TABLE routing_target AS SELECT '" + name + "' AS name");
+        return dataSource;
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.starwarsplanetapi.repository;
 
 import com.example.starwarsplanetapi.domain.Planet;
-import com.example.starwarsplanetapi.domain.QueryBuilder;
+import org.hibernate.Session;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -10,18 +10,25 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Example;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.example.starwarsplanetapi.common.PlanetConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.starwarsplanetapi.repository.CapturingStatementInspector")
+@Import(CountingDataSourcePostProcessor.class)
 public class PlanetRepositoryTest {
 
     @Autowired
@@ -30,6 +37,9 @@ public class PlanetRepositoryTest {
     @Autowired
     private TestEntityManager testEntityManager;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @AfterEach
     public void afterEach() {
         PLANET_ALDERAAN.setId(null);
@@ -47,6 +57,18 @@ public class PlanetRepositoryTest {
         assertThat(sut.getTerrain()).isEqualTo(planet.getTerrain());
     }
 
+    @Test
+    public void createPlanet_WithValidData_SetsVersionAndLastModified() {
+        Planet planet = planetRepository.save(new Planet("Naboo", "temperate", "grassy hills, swamps"));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        Planet sut = testEntityManager.find(Planet.class, planet.getId());
+
+        assertThat(sut.getVersion()).isZero();
+        assertThat(sut.getUpdatedAt()).isEqualTo(planet.getUpdatedAt());
+    }
+
     @ParameterizedTest
     @MethodSource("provideInvalidPlanets")
     public void createPlanet_WithInvalidData_ThrowsException(Planet planet) {
@@ -77,6 +99,34 @@ public class PlanetRepositoryTest {
         assertThatThrownBy(() -> planetRepository.save(planet)).isInstanceOf(RuntimeException.class);
     }
 
+    @Test
+    public void insertPlanets_InBatch_PersistsAllPlanets() {
+        Planet naboo = new Planet("Naboo", "temperate", "grassy hills, swamps");
+        Planet kamino = new Planet("Kamino", "temperate", "ocean");
+
+        planetRepository.insertAll(List.of(naboo, kamino));
+
+        assertThat(naboo.getId()).isNotNull();
+        assertThat(kamino.getId()).isNotNull();
+        assertThat(planetRepository.findExistingNames(List.of("Naboo", "Coruscant"))).containsExactly("Naboo");
+        assertThat(planetRepository.findIdsByClimateToken("temperate")).containsExactlyInAnyOrder(naboo.getId(), kamino.getId());
+        assertThat(planetRepository.findIdsByTerrainToken("swamps")).containsExactly(naboo.getId());
+    }
+
+    @Test
+    public void insertPlanets_InBatch_IssuesConstantNumberOfStatements() {
+        List<Planet> planets = IntStream.range(0, 200)
+                .mapToObj(i -> new Planet("planet-" + i, "arid, windy", "desert"))
+                .toList();
+        CountingDataSourcePostProcessor.clear();
+
+        planetRepository.insertAll(planets);
+
+        // insert em lote, leitura dos ids e um lote para cada tabela de tokens, independente do tamanho do lote
+        assertThat(CountingDataSourcePostProcessor.executions()).isEqualTo(4);
+        assertThat(planets).allMatch(planet -> planet.getId() != null);
+    }
+
     @Test
     public void getPlanet_WithExistingId_ReturnsPlanet() throws Exception {
         Planet planet = testEntityManager.persistFlushFind(PLANET_ALDERAAN);
@@ -114,11 +164,8 @@ public class PlanetRepositoryTest {
     @Sql(scripts = "/import_script.sql") // Execute script before method execution
     @Test
     public void listPlanets_ReturnsFilteredPlanets() throws Exception {
-        Example<Planet> exampleWithoutFilters = QueryBuilder.makeQuery(new Planet());
-        Example<Planet> exampleWithFilters = QueryBuilder.makeQuery(new Planet(PLANET_YAVINIV.getClimate(), PLANET_YAVINIV.getTerrain()));
-
-        List<Planet> planetListWithoutFilters = planetRepository.findAll(exampleWithoutFilters);
-        List<Planet> planetListWithFilters = planetRepository.findAll(exampleWithFilters);
+        List<Planet> planetListWithoutFilters = findPlanets(null, null);
+        List<Planet> planetListWithFilters = findPlanets(PLANET_YAVINIV.getClimate(), PLANET_YAVINIV.getTerrain());
 
         assertThat(planetListWithoutFilters).isNotEmpty();
         assertThat(planetListWithoutFilters).hasSize(3);
@@ -128,12 +175,139 @@ public class PlanetRepositoryTest {
 
     }
 
+    @Sql(scripts = "/import_script.sql")
     @Test
-    public void listPlanets_ReturnsNoPlanets() throws Exception {
+    public void listPlanets_WithMixedCaseFilters_ReturnsPlanets() throws Exception {
+        List<Planet> sut = findPlanets("TEMPERATE, Tropical", "Jungle, Rainforests");
 
-        Example<Planet> example = QueryBuilder.makeQuery(new Planet());
+        assertThat(sut).containsExactly(PLANET_YAVINIV);
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void listPlanets_WithUpdatedPlanet_ReturnsPlanet() throws Exception {
+        jdbcTemplate.update("UPDATE planets SET version = 3 WHERE id = 1");
 
-        List<Planet> planetList = planetRepository.findAll(example);
+        List<Planet> sut = findPlanets("arid", null);
+
+        assertThat(sut).containsExactly(PLANET_TATOOINE);
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void listPlanetRows_ByKeys_ReturnsUnmanagedRows() throws Exception {
+        testEntityManager.clear();
+
+        List<PlanetRow> allRows = planetRepository.findRowsByKeys(null, null);
+        List<PlanetRow> filteredRows = planetRepository.findRowsByKeys("temperate", null);
+
+        assertThat(allRows).map(PlanetRow::toPlanet).containsExactly(PLANET_TATOOINE, PLANET_ALDERAAN, PLANET_YAVINIV);
+        assertThat(filteredRows).map(PlanetRow::toPlanet).containsExactly(PLANET_ALDERAAN);
+        // projeções não ficam no contexto de persistência
+        assertThat(testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void scrollPlanetRows_ByKeys_ReturnsRowsAfterCursor() throws Exception {
+        List<PlanetRow> firstPage = planetRepository.findRowsByKeysAfter(null, null, null, Limit.of(2));
+        List<PlanetRow> secondPage = planetRepository.findRowsByKeysAfter(null, null, firstPage.get(1).id(), Limit.of(2));
+        List<PlanetRow> filteredPage = planetRepository.findRowsByKeysAfter("temperate", null, PLANET_TATOOINE.getId(), Limit.of(2));
+
+        assertThat(firstPage).map(PlanetRow::toPlanet).containsExactly(PLANET_TATOOINE, PLANET_ALDERAAN);
+        assertThat(secondPage).map(PlanetRow::toPlanet).containsExactly(PLANET_YAVINIV);
+        assertThat(filteredPage).map(PlanetRow::toPlanet).containsExactly(PLANET_ALDERAAN);
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void getPlanetRow_ByIdAndName_ReturnsVersionedRow() throws Exception {
+        jdbcTemplate.update("UPDATE planets SET version = 2 WHERE id = 1");
+
+        Optional<PlanetRow> byId = planetRepository.findRowById(1L);
+        Optional<PlanetRow> byName = planetRepository.findRowByName("Tatooine");
+
+        assertThat(byId).map(PlanetRow::toPlanet).contains(PLANET_TATOOINE);
+        assertThat(byId.get().version()).isEqualTo(2);
+        assertThat(byId.get().updatedAt()).isNotNull();
+        assertThat(byName).isEqualTo(byId);
+        assertThat(planetRepository.findRowById(99L)).isEmpty();
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @ParameterizedTest
+    @MethodSource("indexedFilters")
+    public void listPlanets_WithFilters_UsesIndexedColumns(String climateKey, String terrainKey, String index) throws Exception {
+        CapturingStatementInspector.clear();
+
+        planetRepository.findRowsByKeys(climateKey, terrainKey);
+        String listSql = CapturingStatementInspector.lastStatement();
+        planetRepository.findRowsByKeysAfter(climateKey, terrainKey, 1L, Limit.of(2));
+        String pageSql = CapturingStatementInspector.lastStatement();
+
+        List<Object> keys = Stream.of(climateKey, terrainKey).filter(Objects::nonNull).collect(Collectors.toList());
+        List<Object> pageParameters = new ArrayList<>(keys);
+        pageParameters.addAll(List.of(1L, 2));
+
+        // cada combinação de filtros tem a sua consulta, sem predicados "is null" que atrapalham o plano
+        assertThat(listSql).doesNotContainIgnoringCase("lower(").doesNotContainIgnoringCase("is null");
+        assertThat(pageSql).doesNotContainIgnoringCase("is null");
+        assertThat(explain(listSql, keys)).containsIgnoringCase(index);
+        assertThat(explain(pageSql, pageParameters)).containsIgnoringCase(index);
+    }
+
+    // Troca cada "?" pelo valor correspondente, na ordem dos parâmetros
+    private String explain(String sql, List<Object> parameters) {
+        StringBuilder bound = new StringBuilder();
+        int parameter = 0;
+        for (char character : sql.toCharArray()) {
+            if (character != '?') {
+                bound.append(character);
+            } else {
+                Object value = parameters.get(parameter++);
+                bound.append(value instanceof String ? "'" + value + "'" : value);
+            }
+        }
+        return jdbcTemplate.queryForList("EXPLAIN " + bound).toString();
+    }
+
+    private static Stream<Arguments> indexedFilters() {
+        return Stream.of(
+                Arguments.of("arid", "desert", "idx_planets_climate_terrain"),
+                Arguments.of("arid", null, "idx_planets_climate_terrain"),
+                Arguments.of(null, "desert", "idx_planets_terrain"));
+    }
+
+    @Test
+    public void createPlanet_WithMultiValueFields_PersistsTokens() {
+        Planet planet = planetRepository.save(new Planet("Naboo", "Temperate", "grassy hills, swamps, forests"));
+        testEntityManager.flush();
+
+        assertThat(planetRepository.findIdsByClimateToken("temperate")).containsExactly(planet.getId());
+        assertThat(planetRepository.findIdsByTerrainToken("swamps")).containsExactly(planet.getId());
+        assertThat(planetRepository.findIdsByTerrainToken("grassy hills, swamps, forests")).isEmpty();
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void listPlanets_ByToken_ReturnsPlanetIds() throws Exception {
+        assertThat(planetRepository.findIdsByClimateToken("temperate")).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(planetRepository.findIdsByTerrainToken("jungle")).containsExactly(3L);
+        assertThat(planetRepository.findRowsByIdIn(List.of(3L, 1L))).map(PlanetRow::toPlanet).containsExactly(PLANET_TATOOINE, PLANET_YAVINIV);
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void streamPlanets_ReturnsAllPlanetsOrderedById() throws Exception {
+        try (Stream<Planet> planets = planetRepository.streamAll()) {
+            assertThat(planets).containsExactly(PLANET_TATOOINE, PLANET_ALDERAAN, PLANET_YAVINIV);
+        }
+    }
+
+    @Test
+    public void listPlanets_ReturnsNoPlanets() throws Exception {
+
+        List<Planet> planetList = findPlanets(null, null);
 
         assertThat(planetList).isEmpty();
     }
@@ -149,8 +323,33 @@ public class PlanetRepositoryTest {
         assertThat(removedPlanet).isNull();
     }
 
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void removePlanet_WithBulkDelete_ReturnsAffectedRowsAndRemovesTokens() {
+        int removed = planetRepository.deletePlanetById(3L);
+        int removedAgain = planetRepository.deletePlanetById(3L);
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(removedAgain).isZero();
+        assertThat(planetRepository.findIdsByClimateToken("tropical")).isEmpty();
+        assertThat(planetRepository.findIdsByTerrainToken("jungle")).isEmpty();
+    }
+
+    @Sql(scripts = "/import_script.sql")
+    @Test
+    public void removePlanets_WithBulkDelete_ReturnsAffectedRows() {
+        int removed = planetRepository.deletePlanetsByIdIn(List.of(1L, 2L, 99L));
+
+        assertThat(removed).isEqualTo(2);
+        assertThat(planetRepository.findRowsByKeys(null, null)).map(PlanetRow::toPlanet).containsExactly(PLANET_YAVINIV);
+    }
+
 //    @Test
 //    public void removePlanet_WithUnExistingId_ThrowsEmptyResultDataAccessException() {
 //        assertThatThrownBy(() -> planetRepository.deleteById(6L)).isInstanceOf(EmptyResultDataAccessException.class);
 //    }
+
+    private List<Planet> findPlanets(String climate, String terrain) {
+        return planetRepository.findRowsByKeys(Planet.normalize(climate), Planet.normalize(terrain)).stream().map(PlanetRow::toPlanet).toList();
+    }
 }
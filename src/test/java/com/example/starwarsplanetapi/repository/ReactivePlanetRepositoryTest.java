@@ -0,0 +1,60 @@
+package com.example.starwarsplanetapi.repository;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// O mesmo banco H2 em memória é acessado por JDBC (esquema e conferência) e por R2DBC (repositório)
+public class ReactivePlanetRepositoryTest {
+    private static final String DATABASE = "reactive";
+    private static final String NODE_ID = "reactive-node";
+
+    private final DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + DATABASE + ";DB_CLOSE_DELAY=-1");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private ReactivePlanetRepository reactivePlanetRepository;
+
+    @BeforeEach
+    public void beforeEach() {
+        Flyway flyway = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        PlanetProperties planetProperties = new PlanetProperties();
+        planetProperties.getCoherence().setNodeId(NODE_ID);
+        reactivePlanetRepository = new ReactivePlanetRepository(H2ConnectionFactory.inMemory(DATABASE), planetProperties);
+    }
+
+    @Test
+    public void insertPlanet_AppendsCreatedChange() {
+        StepVerifier.create(reactivePlanetRepository.insert(new Planet("Naboo", "temperate", "grassy hills, swamps")))
+                .assertNext(planet -> assertThat(planet.getId()).isNotNull())
+                .verifyComplete();
+
+        // os outros nós só ficam sabendo da escrita pelo log de mudanças
+        assertThat(changes()).containsExactly("CREATED");
+    }
+
+    @Test
+    public void removePlanet_AppendsRemovedChangeOnlyWhenDeleted() {
+        Planet planet = reactivePlanetRepository.insert(new Planet("Naboo", "temperate", "grassy hills, swamps")).block();
+
+        StepVerifier.create(reactivePlanetRepository.deleteById(planet.getId())).expectNext(1L).verifyComplete();
+        StepVerifier.create(reactivePlanetRepository.deleteById(planet.getId())).expectNext(0L).verifyComplete();
+
+        assertThat(changes()).containsExactly("CREATED", "REMOVED");
+    }
+
+    private List<String> changes() {
+        return jdbcTemplate.queryForList("SELECT change_type FROM planet_changes WHERE origin = ? ORDER BY id", String.class, NODE_ID);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANET_ALDERAAN;
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANET_TATOOINE;
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANET_YAVINIV;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlanetCacheTest {
+    private final PlanetProperties planetProperties = new PlanetProperties();
+
+    @Test
+    public void findPlanets_WhenCallerChangesResult_KeepsCachedListing() {
+        PlanetCache planetCache = new PlanetCache(planetProperties);
+        PlanetFilter filter = PlanetFilter.exact("arid", null);
+
+        List<Planet> first = planetCache.findPlanets(filter, () -> List.of(new Planet(1L, "Tatooine", "arid", "desert")));
+        first.get(0).setName("Changed");
+        List<Planet> second = planetCache.findPlanets(filter, List::of);
+
+        // a alteração feita por um chamador não vaza para os próximos
+        assertThat(second).extracting(Planet::getName).containsExactly("Tatooine");
+    }
+
+    @Test
+    public void findById_WhenCallerChangesResult_KeepsCachedPlanet() {
+        PlanetCache planetCache = new PlanetCache(planetProperties);
+
+        planetCache.findById(1L, () -> new Planet(1L, "Tatooine", "arid", "desert")).setName("Changed");
+        // acertos no cache, o carregador não é chamado
+        Planet byId = planetCache.findById(1L, () -> null);
+        Planet byName = planetCache.findByName("tatooine", () -> null);
+
+        assertThat(byId.getName()).isEqualTo("Tatooine");
+        assertThat(byName.getName()).isEqualTo("Tatooine");
+        assertThat(byName).isNotSameAs(byId);
+    }
+
+    @Test
+    public void findPlanets_OverQuarterOfRowBudget_IsNotCached() {
+        planetProperties.getCache().setFilterMaximumRows(8);
+        PlanetCache planetCache = new PlanetCache(planetProperties);
+        AtomicInteger loads = new AtomicInteger();
+
+        // com orçamento de 8 linhas, uma listagem pode ter no máximo 2
+        for (int i = 0; i < 2; i++) {
+            planetCache.findPlanets(PlanetFilter.exact(null, null), () -> {
+                loads.incrementAndGet();
+                return List.of(PLANET_TATOOINE, PLANET_ALDERAAN, PLANET_YAVINIV);
+            });
+        }
+        for (int i = 0; i < 2; i++) {
+            planetCache.findPlanets(PlanetFilter.exact("temperate", null), () -> {
+                loads.incrementAndGet();
+                return List.of(PLANET_ALDERAAN, PLANET_YAVINIV);
+            });
+        }
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    public void findPlanets_BeyondMaximumRows_EvictsListings() {
+        planetProperties.getCache().setFilterMaximumRows(8);
+        PlanetCache planetCache = new PlanetCache(planetProperties);
+
+        cacheListings(planetCache, 10, List.of(PLANET_TATOOINE, PLANET_ALDERAAN));
+
+        // 10 listagens de 2 linhas não cabem em 8 linhas
+        awaitFilterEntriesAtMost(planetCache, 4);
+    }
+
+    @Test
+    public void findPlanets_BeyondMaximumEntries_EvictsListings() {
+        planetProperties.getCache().setFilterMaximumRows(100);
+        planetProperties.getCache().setFilterMaximumEntries(10);
+        PlanetCache planetCache = new PlanetCache(planetProperties);
+
+        // cada entrada pesa ao menos 100 / 10 linhas, mesmo com uma linha só
+        cacheListings(planetCache, 20, List.of(PLANET_TATOOINE));
+
+        awaitFilterEntriesAtMost(planetCache, 10);
+    }
+
+    private static void cacheListings(PlanetCache planetCache, int count, List<Planet> planets) {
+        IntStream.range(0, count).forEach(i -> planetCache.findPlanets(PlanetFilter.exact("climate-" + i, null), () -> planets));
+    }
+
+    // A remoção do Caffeine roda em segundo plano depois das escritas
+    private static void awaitFilterEntriesAtMost(PlanetCache planetCache, long maximum) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (planetCache.statistics().get("byFilter").size() > maximum) {
+            assertThat(System.nanoTime()).as("filter cache not bounded in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        assertThat(planetCache.statistics().get("byFilter").evictions()).isPositive();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.config.ReplicaRoutingDataSource;
+import com.example.starwarsplanetapi.repository.PlanetChange;
+import com.example.starwarsplanetapi.repository.PlanetChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANET_TATOOINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PlanetChangePollerTest {
+    private static final String LOCAL = "local-node";
+    private static final String REMOTE = "remote-node";
+
+    @Mock
+    private PlanetChangeRepository planetChangeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ReplicaRoutingDataSource routingDataSource;
+    private final PlanetProperties planetProperties = new PlanetProperties();
+    private final PlanetCache planetCache = spy(new PlanetCache(new PlanetProperties()));
+    private PlanetChangePoller planetChangePoller;
+
+    @BeforeEach
+    public void beforeEach() {
+        when(planetChangeRepository.origin()).thenReturn(LOCAL);
+        planetChangePoller = new PlanetChangePoller(planetChangeRepository, planetCache, eventPublisher, planetProperties,
+                Optional.of(routingDataSource));
+    }
+
+    @Test
+    public void poll_WithRemoteChanges_InvalidatesCacheAndPublishesEvents() {
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(1, PlanetChangeEvent.Type.CREATED, 1L, REMOTE, PLANET_TATOOINE),
+                new PlanetChange(2, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+
+        int sut = planetChangePoller.poll();
+
+        assertThat(sut).isEqualTo(2);
+        verify(planetCache).invalidate(PLANET_TATOOINE);
+        verify(planetCache).invalidateById(2L);
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.created(PLANET_TATOOINE));
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(2L));
+    }
+
+    @Test
+    public void poll_WithRemoteChanges_RoutesReadsToPrimaryBeforeInvalidating() {
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(1, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+
+        planetChangePoller.poll();
+
+        // uma leitura que repõe o cache logo depois da invalidação não pode vir de uma réplica atrasada
+        InOrder order = inOrder(routingDataSource, planetCache);
+        order.verify(routingDataSource).recordWrite();
+        order.verify(planetCache).invalidateById(2L);
+    }
+
+    @Test
+    public void poll_WithOwnChanges_SkipsThemAndAdvances() {
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(1, PlanetChangeEvent.Type.REMOVED, 1L, LOCAL, null)));
+
+        int sut = planetChangePoller.poll();
+        planetChangePoller.poll();
+
+        assertThat(sut).isZero();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(routingDataSource, never()).recordWrite();
+        // a segunda leitura já parte da sequência 1
+        verify(planetChangeRepository).findAfter(1, 500);
+    }
+
+    @Test
+    public void poll_WithGapInSequence_WaitsForMissingEntry() {
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(2, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+
+        int sut = planetChangePoller.poll();
+        planetChangePoller.poll();
+
+        assertThat(sut).isZero();
+        // a posição não avança enquanto a sequência 1 pode ser confirmada por outra transação
+        verify(planetChangeRepository, times(2)).findAfter(0, 500);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void poll_WithExpiredGap_SkipsMissingEntry() {
+        planetProperties.getCoherence().setGapTimeout(Duration.ZERO);
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(2, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+
+        int sut = planetChangePoller.poll();
+
+        assertThat(sut).isEqualTo(1);
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(2L));
+    }
+
+    @Test
+    public void poll_WithEntryCommittedAfterGapTimeout_AppliesItLater() {
+        planetProperties.getCoherence().setGapTimeout(Duration.ZERO);
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(2, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+        planetChangePoller.poll();
+
+        // a transação da sequência 1 só confirma depois que o poller desistiu de esperar por ela
+        when(planetChangeRepository.findIn(Set.of(1L))).thenReturn(List.of(
+                new PlanetChange(1, PlanetChangeEvent.Type.CREATED, 1L, REMOTE, PLANET_TATOOINE)));
+        int sut = planetChangePoller.poll();
+        planetChangePoller.poll();
+
+        assertThat(sut).isEqualTo(1);
+        verify(planetCache).invalidate(PLANET_TATOOINE);
+        verify(eventPublisher, times(1)).publishEvent(PlanetChangeEvent.created(PLANET_TATOOINE));
+        // depois de aplicada, a sequência não é mais consultada
+        verify(planetChangeRepository, times(2)).findIn(any());
+    }
+
+    @Test
+    public void poll_WithTooManyHoles_ResetsLocalCaches() {
+        planetProperties.getCoherence().setGapTimeout(Duration.ZERO);
+        planetProperties.getCoherence().setBatchSize(10);
+        when(planetChangeRepository.findAfter(0, 10)).thenReturn(List.of(
+                new PlanetChange(100, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+
+        planetChangePoller.poll();
+
+        verify(planetCache).invalidateAll();
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.reset());
+        verify(planetChangeRepository, never()).findIn(any());
+    }
+
+    @Test
+    public void poll_AfterStartOnEmptyLog_AppliesFirstEntryWithoutWaiting() {
+        // o log foi podado até ficar vazio, mas a sequência continua de onde parou
+        when(planetChangeRepository.lastSequence()).thenReturn(0L);
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(5001, PlanetChangeEvent.Type.REMOVED, 2L, REMOTE, null)));
+        planetChangePoller.reposition();
+
+        int sut = planetChangePoller.poll();
+        planetChangePoller.poll();
+
+        assertThat(sut).isEqualTo(1);
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(2L));
+        verify(planetChangeRepository).findAfter(5001, 500);
+        verify(planetChangeRepository, never()).findIn(any());
+    }
+
+    @Test
+    public void poll_WithImportResets_PublishesSingleReset() {
+        when(planetChangeRepository.findAfter(0, 500)).thenReturn(List.of(
+                new PlanetChange(1, PlanetChangeEvent.Type.RESET, 0L, REMOTE, null),
+                new PlanetChange(2, PlanetChangeEvent.Type.RESET, 0L, REMOTE, null),
+                new PlanetChange(3, PlanetChangeEvent.Type.RESET, 0L, REMOTE, null)));
+
+        int sut = planetChangePoller.poll();
+
+        assertThat(sut).isEqualTo(3);
+        // os lotes de uma importação viram um único recarregamento por leitura do log
+        verify(planetCache, times(1)).invalidateAll();
+        verify(eventPublisher, times(1)).publishEvent(PlanetChangeEvent.reset());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+}
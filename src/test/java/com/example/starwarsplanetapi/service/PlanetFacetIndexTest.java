@@ -0,0 +1,85 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFacets;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetFacetIndexTest {
+    @Mock
+    private PlanetService planetService;
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+    @InjectMocks
+    private PlanetFacetIndex planetFacetIndex;
+
+    @BeforeEach
+    public void beforeEach() {
+        doAnswer(invocation -> {
+            Consumer<Planet> consumer = invocation.getArgument(0);
+            PLANETS.forEach(consumer);
+            return null;
+        }).when(planetService).exportPlanets(any());
+        planetFacetIndex.load();
+    }
+
+    @Test
+    public void facets_WithoutFilter_CountsEveryToken() {
+        PlanetFacets sut = planetFacetIndex.facets(PlanetFilter.exact(null, null));
+
+        assertThat(sut.total()).isEqualTo(3);
+        assertThat(sut.climate()).isEqualTo(Map.of("arid", 1, "temperate", 2, "tropical", 1));
+        assertThat(sut.terrain()).containsEntry("desert", 1).containsEntry("jungle", 1).hasSize(5);
+    }
+
+    @Test
+    public void facets_WithFilter_CountsOnlyMatchingPlanets() {
+        PlanetFacets all = planetFacetIndex.facets(new PlanetFilter("temperate", "jungle", PlanetFilter.Match.ALL));
+        PlanetFacets any = planetFacetIndex.facets(new PlanetFilter("arid, tropical", null, PlanetFilter.Match.ANY));
+
+        assertThat(all.total()).isEqualTo(1);
+        assertThat(all.climate()).isEqualTo(Map.of("temperate", 1, "tropical", 1));
+        assertThat(any.total()).isEqualTo(2);
+        assertThat(any.terrain()).containsOnlyKeys("desert", "jungle", "rainforests");
+    }
+
+    @Test
+    public void facets_WithExactFilter_MatchesWholeValue() {
+        // como a listagem: "temperate" não inclui Yavin IV ("temperate, tropical")
+        PlanetFacets sut = planetFacetIndex.facets(PlanetFilter.exact("Temperate", null));
+        PlanetFacets both = planetFacetIndex.facets(PlanetFilter.exact("temperate, tropical", "jungle, rainforests"));
+
+        assertThat(sut.total()).isEqualTo(1);
+        assertThat(sut.terrain()).isEqualTo(Map.of("grasslands", 1, "mountains", 1));
+        assertThat(both.total()).isEqualTo(1);
+        assertThat(planetFacetIndex.facets(PlanetFilter.exact("temperate", "jungle")).total()).isZero();
+    }
+
+    @Test
+    public void facets_AfterChanges_UpdatesCountsIncrementally() {
+        planetFacetIndex.onPlanetChange(PlanetChangeEvent.removed(PLANET_TATOOINE.getId()));
+        planetFacetIndex.onPlanetChange(PlanetChangeEvent.created(PLANET_HOTH));
+
+        PlanetFacets sut = planetFacetIndex.facets(PlanetFilter.exact(null, null));
+
+        assertThat(sut.total()).isEqualTo(3);
+        assertThat(sut.climate()).doesNotContainKey("arid").containsEntry("frozen", 1);
+        assertThat(sut.terrain()).doesNotContainKey("desert").containsEntry("ice caves", 1);
+    }
+}
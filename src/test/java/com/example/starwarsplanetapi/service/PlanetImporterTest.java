@@ -0,0 +1,155 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetBatchItem;
+import com.example.starwarsplanetapi.domain.PlanetImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class PlanetImporterTest {
+    @Mock
+    private PlanetService planetService;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private PlanetProperties planetProperties = new PlanetProperties();
+    @InjectMocks
+    private PlanetImporter planetImporter;
+
+    private final List<List<Planet>> written = new ArrayList<>();
+
+    @BeforeEach
+    public void beforeEach() {
+        planetProperties.getImports().setBatchSize(2);
+        planetProperties.getImports().setQueueCapacity(2);
+        doAnswer(invocation -> {
+            List<Planet> planets = invocation.getArgument(0);
+            synchronized (written) {
+                written.add(planets);
+            }
+            return IntStream.range(0, planets.size())
+                    .mapToObj(i -> planets.get(i).getName().equals("Alderaan")
+                            ? PlanetBatchItem.conflict(i, planets.get(i), "Planet name already exists")
+                            : PlanetBatchItem.created(i, planets.get(i)))
+                    .toList();
+        }).when(planetService).importAll(anyList(), anyInt());
+    }
+
+    @Test
+    public void importPlanets_WithSwapiResults_WritesValidPlanetsInBatches() throws Exception {
+        String json = """
+                {"count": 6, "next": null, "results": [
+                  {"name": "Tatooine", "climate": "arid", "terrain": "desert", "diameter": "10465"},
+                  {"name": "Alderaan", "climate": "temperate", "terrain": "grasslands, mountains"},
+                  {"name": "", "climate": "frozen", "terrain": "tundra"},
+                  42,
+                  {"name": "Yavin IV", "climate": "temperate, tropical", "terrain": "jungle, rainforests"},
+                  {"name": "Hoth", "climate": {"kind": "frozen"}, "terrain": "tundra, ice caves"}
+                ]}
+                """;
+
+        PlanetImportReport sut = planetImporter.importPlanets(stream(json));
+
+        assertThat(sut.read()).isEqualTo(6);
+        assertThat(sut.created()).isEqualTo(2);
+        assertThat(sut.rejected()).isEqualTo(4);
+        assertThat(sut.rejections()).extracting(PlanetBatchItem::index).containsExactly(1, 2, 3, 5);
+        assertThat(sut.rejections()).extracting(PlanetBatchItem::status).containsExactly(
+                PlanetBatchItem.Status.CONFLICT, PlanetBatchItem.Status.INVALID,
+                PlanetBatchItem.Status.INVALID, PlanetBatchItem.Status.INVALID);
+        assertThat(sut.rejectionsTruncated()).isFalse();
+        // os lotes respeitam o tamanho configurado e a ordem do arquivo
+        assertThat(written).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+        assertThat(written.stream().flatMap(List::stream).map(Planet::getName))
+                .containsExactly("Tatooine", "Alderaan", "Yavin IV");
+    }
+
+    @Test
+    public void importPlanets_WithLargeArray_KeepsQueuesBoundedAndReportsAll() throws Exception {
+        planetProperties.getImports().setMaxReportedRejections(3);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"Planet ").append(i)
+                    .append("\",\"climate\":\"").append(i % 100 == 0 ? "" : "arid").append("\",\"terrain\":\"desert\"}");
+        }
+        json.append("]");
+
+        PlanetImportReport sut = planetImporter.importPlanets(stream(json.toString()));
+
+        assertThat(sut.read()).isEqualTo(1_000);
+        assertThat(sut.created()).isEqualTo(990);
+        assertThat(sut.rejected()).isEqualTo(10);
+        assertThat(sut.rejections()).hasSize(3);
+        assertThat(sut.rejectionsTruncated()).isTrue();
+        verify(planetService, times(495)).importAll(anyList(), anyInt());
+        // um único anúncio para a importação inteira, em vez de um evento por planeta
+        verify(planetService, times(1)).announceImport();
+        verify(planetService, never()).createAll(anyList(), anyInt());
+    }
+
+    @Test
+    public void importPlanets_WithMalformedJson_ThrowsInvalidPlanetRequestException() {
+        String json = "[{\"name\": \"Tatooine\", \"climate\": \"arid\", \"terrain\": \"desert\"}, {\"name\": ";
+
+        assertThatThrownBy(() -> planetImporter.importPlanets(stream(json))).isInstanceOf(InvalidPlanetRequestException.class);
+    }
+
+    @Test
+    public void importPlanets_WithoutPlanetArray_ThrowsInvalidPlanetRequestException() {
+        assertThatThrownBy(() -> planetImporter.importPlanets(stream("{\"count\": 0}")))
+                .isInstanceOf(InvalidPlanetRequestException.class);
+    }
+
+    @Test
+    public void importPlanets_WhenWriteFails_PropagatesFailure() {
+        when(planetService.importAll(anyList(), anyInt())).thenThrow(new IllegalStateException("database down"));
+        String json = IntStream.range(0, 100)
+                .mapToObj(i -> "{\"name\":\"Planet " + i + "\",\"climate\":\"arid\",\"terrain\":\"desert\"}")
+                .reduce((left, right) -> left + "," + right)
+                .map(items -> "[" + items + "]")
+                .orElseThrow();
+
+        assertThatThrownBy(() -> planetImporter.importPlanets(stream(json)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database down");
+        // nada foi gravado, então não há o que anunciar
+        verify(planetService, never()).announceImport();
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanetNameIndexTest {
+    @Mock
+    private PlanetService planetService;
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+    @Spy
+    private PlanetProperties planetProperties = new PlanetProperties();
+    @InjectMocks
+    private PlanetNameIndex planetNameIndex;
+
+    @BeforeEach
+    public void beforeEach() {
+        doAnswer(invocation -> {
+            Consumer<Planet> consumer = invocation.getArgument(0);
+            PLANETS.forEach(consumer);
+            return null;
+        }).when(planetService).exportPlanets(any());
+        planetNameIndex.load();
+    }
+
+    @Test
+    public void search_WithPrefix_ReturnsMatchingPlanets() {
+        List<Planet> sut = planetNameIndex.search("YAV", 10);
+
+        assertThat(sut).containsExactly(PLANET_YAVINIV);
+    }
+
+    @Test
+    public void search_WithTypo_ReturnsFuzzyMatches() {
+        List<Planet> sut = planetNameIndex.search("tatoine", 10);
+
+        assertThat(sut).containsExactly(PLANET_TATOOINE);
+    }
+
+    @Test
+    public void search_WithUnknownName_ReturnsEmpty() {
+        assertThat(planetNameIndex.search("kamino", 10)).isEmpty();
+        assertThat(planetNameIndex.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    public void search_WhenCallerChangesResult_KeepsIndexedPlanet() {
+        planetNameIndex.search("tat", 10).get(0).setName("Changed");
+
+        assertThat(planetNameIndex.search("tat", 10)).extracting(Planet::getName).containsExactly("Tatooine");
+    }
+
+    @Test
+    public void search_AfterChanges_UpdatesIndexIncrementally() {
+        planetNameIndex.onPlanetChange(PlanetChangeEvent.removed(PLANET_TATOOINE.getId()));
+        planetNameIndex.onPlanetChange(PlanetChangeEvent.created(PLANET_HOTH));
+
+        assertThat(planetNameIndex.search("tat", 10)).isEmpty();
+        assertThat(planetNameIndex.search("ho", 10)).containsExactly(PLANET_HOTH);
+    }
+}
@@ -1,22 +1,55 @@
 package com.example.starwarsplanetapi.service;
 
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.InvalidPlanetRequestException;
 import com.example.starwarsplanetapi.domain.Planet;
-import com.example.starwarsplanetapi.domain.QueryBuilder;
+import com.example.starwarsplanetapi.domain.PlanetBatchItem;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.repository.PlanetChangeRepository;
 import com.example.starwarsplanetapi.repository.PlanetRepository;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.example.starwarsplanetapi.common.PlanetConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 //@SpringBootTest(classes = {PlanetService.class, PlanetRepository.class})
@@ -25,6 +58,22 @@ public class PlanetServiceTest {
 //    @MockBean
     @Mock
     private PlanetRepository planetRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Spy
+    private PlanetProperties planetProperties = new PlanetProperties();
+    @Spy
+    private PlanetCache planetCache = new PlanetCache(new PlanetProperties());
+    @Spy
+    private PlanetRequestCoalescer planetRequestCoalescer = new PlanetRequestCoalescer();
+    @Mock
+    private PlanetChangeRepository planetChangeRepository;
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 //    @Autowired
     @InjectMocks
     private PlanetService planetService;
@@ -35,14 +84,16 @@ public class PlanetServiceTest {
         // AAA - Como organizar o codigo dentro do método de teste
 
         // Arrange
-        when(planetRepository.save(PLANET)).thenReturn(PLANET);
+        when(planetRepository.save(PLANET)).thenReturn(PLANET_TATOOINE);
 
         // Act
         // System under test
         Planet sut = planetService.create(PLANET);
 
         // Assert
-        assertThat(sut).isEqualTo(PLANET);
+        assertThat(sut).isEqualTo(PLANET_TATOOINE);
+        verify(planetChangeRepository).append(PlanetChangeEvent.Type.CREATED, List.of(PLANET_TATOOINE.getId()));
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.created(PLANET_TATOOINE));
     }
 
     @Test
@@ -52,25 +103,120 @@ public class PlanetServiceTest {
         assertThatThrownBy(() -> planetService.create(INVALID_PLANET)).isInstanceOf(RuntimeException.class);
     }
 
+    @Test
+    public void createPlanets_InBatch_IssuesOneInsertPerBatch() {
+        List<Planet> planets = IntStream.range(0, 120)
+                .mapToObj(i -> new Planet("planet-" + i, "arid", "desert"))
+                .toList();
+
+        List<PlanetBatchItem> sut = planetService.createAll(planets);
+
+        assertThat(sut).hasSize(120).allMatch(item -> item.status() == PlanetBatchItem.Status.CREATED);
+        verify(planetRepository, times(3)).findExistingNames(anyCollection());
+        verify(planetRepository, times(3)).insertAll(anyList());
+    }
+
+    @Test
+    public void importPlanets_InChunks_InvalidatesOncePerChunkWithoutEvents() {
+        List<Planet> planets = IntStream.range(0, 120)
+                .mapToObj(i -> new Planet("planet-" + i, "arid", "desert"))
+                .toList();
+
+        List<PlanetBatchItem> sut = planetService.importAll(planets, 50);
+
+        assertThat(sut).hasSize(120).allMatch(item -> item.status() == PlanetBatchItem.Status.CREATED);
+        verify(planetCache, times(3)).invalidateAll(anyCollection());
+        verify(planetCache, never()).invalidate(any());
+        // os lotes não vão para o log de mudanças nem geram eventos por planeta
+        verify(planetChangeRepository, never()).appendReset();
+        verify(planetChangeRepository, never()).append(any(), anyCollection());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void importPlanets_AlreadyValidatedByImporter_SkipsValidation() {
+        List<Planet> planets = List.of(new Planet("Naboo", "temperate", "grassy hills, swamps"));
+
+        planetService.importAll(planets, 50);
+
+        verify(validator, never()).validate(any());
+        verify(planetRepository).insertAll(planets);
+    }
+
+    @Test
+    public void announceImport_LogsAndPublishesSingleReset() {
+        planetService.announceImport();
+
+        // os outros nós recarregam uma única vez, ao fim da importação
+        verify(planetChangeRepository, times(1)).appendReset();
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.reset());
+    }
+
+    @Test
+    public void createPlanets_WithNonPositiveBatchSize_ThrowsIllegalArgumentException() {
+        List<Planet> planets = List.of(new Planet("Naboo", "temperate", "grassy hills, swamps"));
+
+        assertThatThrownBy(() -> planetService.createAll(planets, 0)).isInstanceOf(IllegalArgumentException.class);
+        verify(planetRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void createPlanets_WithInvalidAndExistingNames_ReportsEachItem() {
+        Planet naboo = new Planet("Naboo", "temperate", "grassy hills, swamps");
+        List<Planet> planets = List.of(naboo, INVALID_PLANET, new Planet("naboo", "temperate", "swamps"),
+                new Planet(PLANET_TATOOINE.getName(), "arid", "desert"));
+        when(planetRepository.findExistingNames(anyCollection())).thenReturn(List.of(PLANET_TATOOINE.getName()));
+        doAnswer(invocation -> {
+            List<Planet> inserted = invocation.getArgument(0);
+            inserted.forEach(planet -> planet.setId(10L));
+            return null;
+        }).when(planetRepository).insertAll(anyList());
+
+        List<PlanetBatchItem> sut = planetService.createAll(planets);
+
+        assertThat(sut).extracting(PlanetBatchItem::status).containsExactly(
+                PlanetBatchItem.Status.CREATED,
+                PlanetBatchItem.Status.INVALID,
+                PlanetBatchItem.Status.CONFLICT,
+                PlanetBatchItem.Status.CONFLICT);
+        assertThat(sut.get(0).id()).isEqualTo(10L);
+        verify(planetRepository).insertAll(List.of(naboo));
+    }
+
     @Test
     public void findPlanet_WithExistId_ReturnPlanet(){
-        when(planetRepository.findById(1L)).thenReturn(Optional.of(PLANET));
+        when(planetRepository.findRowById(1L)).thenReturn(Optional.of(rowOf(PLANET)));
 
         Planet sut = planetService.findById(1L);
 
         assertThat(sut).isEqualTo(PLANET);
     }
 
+    @Test
+    public void findPlanet_ThroughTimedAspect_RecordsServiceTimer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(planetService);
+        proxyFactory.addAspect(new TimedAspect(registry));
+        PlanetService timed = proxyFactory.getProxy();
+        when(planetRepository.findRowById(1L)).thenReturn(Optional.of(rowOf(PLANET_TATOOINE)));
+
+        timed.findById(1L);
+
+        // @Timed na classe mede todos os métodos públicos com as tags class e method
+        assertThat(registry.get("planets.service").tags("class", PlanetService.class.getName(), "method", "findById")
+                .timer().count()).isEqualTo(1);
+    }
+
     @Test
     public void findPlanet_WithUnexistId_ThrowsNotSuchElementException(){
-        when(planetRepository.findById(290L)).thenThrow(new NoSuchElementException());
+        when(planetRepository.findRowById(290L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> planetService.findById(290L)).isInstanceOf(NoSuchElementException.class);
     }
 
     @Test
     public void findPlanet_WithExistName_ReturnPlanet(){
-        when(planetRepository.findByName(PLANET_TATOOINE.getName())).thenReturn(Optional.of(PLANET_TATOOINE));
+        when(planetRepository.findRowByName(PLANET_TATOOINE.getName())).thenReturn(Optional.of(rowOf(PLANET_TATOOINE)));
 
         Planet sut = planetService.findByName(PLANET_TATOOINE.getName());
 
@@ -80,16 +226,42 @@ public class PlanetServiceTest {
 
     @Test
     public void findPlanet_WithUnexistName_ThrowsNotSuchElementException(){
-        when(planetRepository.findByName("Unexisting name")).thenThrow(new NoSuchElementException());
+        when(planetRepository.findRowByName("Unexisting name")).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> planetService.findByName("Unexisting name")).isInstanceOf(NoSuchElementException.class);
     }
 
+    @Test
+    public void findPlanet_Twice_ReadsRepositoryOnce() {
+        when(planetRepository.findRowById(1L)).thenReturn(Optional.of(rowOf(PLANET_TATOOINE)));
+
+        planetService.findById(1L);
+        Planet sut = planetService.findByName(PLANET_TATOOINE.getName().toUpperCase());
+
+        assertThat(sut).isEqualTo(PLANET_TATOOINE);
+        verify(planetRepository, times(1)).findRowById(1L);
+        verify(planetRepository, never()).findRowByName(any());
+        assertThat(planetCache.statistics().get("byName").hits()).isEqualTo(1);
+    }
+
+    @Test
+    public void findPlanet_AfterRemove_ReadsRepositoryAgain() {
+        when(planetRepository.findRowByName(PLANET_TATOOINE.getName())).thenReturn(Optional.of(rowOf(PLANET_TATOOINE)));
+
+        when(planetRepository.deletePlanetById(PLANET_TATOOINE.getId())).thenReturn(1);
+
+        planetService.findByName(PLANET_TATOOINE.getName());
+        planetService.removeById(PLANET_TATOOINE.getId());
+        planetService.findByName(PLANET_TATOOINE.getName());
+
+        verify(planetRepository, times(2)).findRowByName(PLANET_TATOOINE.getName());
+    }
+
     @Test
     public void listPlanets_ReturnAllPlanets() {
-        when(planetRepository.findAll(QueryBuilder.makeQuery(new Planet()))).thenReturn(LIST_OF_PLANETS);
+        when(planetRepository.findRowsByKeys(null, null)).thenReturn(rowsOf(LIST_OF_PLANETS));
 
-        List<Planet> sut = planetService.findPlanets(null, null);
+        List<Planet> sut = planetService.findPlanets(PlanetFilter.exact(null, null));
 
         assertThat(sut).isEqualTo(LIST_OF_PLANETS);
         assertThat(sut).hasSize(3);
@@ -98,23 +270,199 @@ public class PlanetServiceTest {
 
     @Test
     public void listPlanets_ReturnNoPlanets() {
-        when(planetRepository.findAll(any())).thenReturn(Collections.emptyList());
+        when(planetRepository.findRowsByKeys(any(), any())).thenReturn(Collections.emptyList());
 
-        List<Planet> sut = planetService.findPlanets(null, null);
+        List<Planet> sut = planetService.findPlanets(PlanetFilter.exact(null, null));
 
         assertThat(sut.size()).isEqualTo(0);
     }
 
+    @Test
+    public void listPlanets_RepeatedFilter_ServedFromCacheUntilNextWrite() {
+        when(planetRepository.findRowsByKeys("arid", "desert")).thenReturn(rowsOf(List.of(PLANET_TATOOINE)));
+        when(planetRepository.save(PLANET)).thenReturn(PLANET_ALDERAAN);
+
+        List<Planet> first = planetService.findPlanets(PlanetFilter.exact("arid", "desert"));
+        List<Planet> second = planetService.findPlanets(PlanetFilter.exact("Arid", "DESERT"));
+        // qualquer escrita avança a geração e invalida todos os resultados de uma vez
+        planetService.create(PLANET);
+        List<Planet> afterWrite = planetService.findPlanets(PlanetFilter.exact("arid", "desert"));
+
+        assertThat(second).isEqualTo(first);
+        // o cache guarda linhas imutáveis e cada chamada recebe suas próprias cópias
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        assertThat(afterWrite).containsExactly(PLANET_TATOOINE);
+        verify(planetRepository, times(2)).findRowsByKeys("arid", "desert");
+        assertThatThrownBy(() -> first.add(PLANET)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void listPlanets_ConcurrentIdenticalFilters_ShareOneQuery() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        planetRequestCoalescer.bindTo(registry);
+        CountDownLatch release = new CountDownLatch(1);
+        when(planetRepository.findRowsByKeys("arid", "desert")).thenAnswer(invocation -> {
+            release.await();
+            return rowsOf(List.of(PLANET_TATOOINE));
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Planet>> first = executor.submit(() -> planetService.findPlanets(PlanetFilter.exact("arid", "desert")));
+            Future<List<Planet>> second = executor.submit(() -> planetService.findPlanets(PlanetFilter.exact("Arid", "DESERT")));
+            // a consulta só termina depois que a segunda chamada se juntou à primeira
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalescedFilterCalls(registry) < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(first.get()).containsExactly(PLANET_TATOOINE);
+            assertThat(second.get()).containsExactly(PLANET_TATOOINE);
+        }
+        assertThat(coalescedFilterCalls(registry)).isEqualTo(1);
+        verify(planetRepository, times(1)).findRowsByKeys("arid", "desert");
+    }
+
+    private static double coalescedFilterCalls(SimpleMeterRegistry registry) {
+        return registry.get("planets.coalescing.calls").tags("query", "filter", "outcome", "coalesced").functionCounter().count();
+    }
+
+    @Test
+    public void scrollPlanets_ReturnsPage() {
+        when(planetRepository.findRowsByKeysAfter(isNull(), isNull(), isNull(), argThat(limit -> limit.max() == 2))).thenReturn(rowsOf(List.of(PLANET_TATOOINE, PLANET_ALDERAAN)));
+
+        Window<Planet> sut = planetService.findPlanets(PlanetFilter.exact(null, null), ScrollPosition.keyset(), 1);
+
+        assertThat(sut.getContent()).containsExactly(PLANET_TATOOINE);
+        assertThat(sut.hasNext()).isTrue();
+        assertThat(sut.positionAt(0)).isEqualTo(ScrollPosition.forward(Map.of("id", PLANET_TATOOINE.getId())));
+    }
+
+    @Test
+    public void scrollPlanets_WithExactFilter_QueriesKeysAfterCursor() {
+        when(planetRepository.findRowsByKeysAfter(eq("arid"), eq("desert"), eq(1L), argThat(limit -> limit.max() == 2))).thenReturn(rowsOf(List.of(PLANET_TATOOINE)));
+
+        Window<Planet> sut = planetService.findPlanets(PlanetFilter.exact("Arid", "DESERT"),
+                ScrollPosition.forward(Map.of("id", 1L)), 1);
+
+        assertThat(sut.getContent()).containsExactly(PLANET_TATOOINE);
+        assertThat(sut.hasNext()).isFalse();
+        verify(planetRepository, never()).findBy(any(), any());
+    }
+
+    @Test
+    public void exportPlanets_StreamsAndDetachesPlanets() {
+        when(planetRepository.streamAll()).thenReturn(Stream.of(PLANET_TATOOINE, PLANET_ALDERAAN));
+        List<Planet> exported = new ArrayList<>();
+
+        planetService.exportPlanets(exported::add);
+
+        assertThat(exported).containsExactly(PLANET_TATOOINE, PLANET_ALDERAAN);
+        verify(entityManager).detach(PLANET_TATOOINE);
+        verify(entityManager).detach(PLANET_ALDERAAN);
+    }
+
+    @Test
+    public void listPlanets_MatchingAllTokens_IntersectsPostings() {
+        when(planetRepository.findIdsByClimateToken("temperate")).thenReturn(List.of(2L, 3L));
+        when(planetRepository.findIdsByTerrainToken("jungle")).thenReturn(List.of(3L));
+        when(planetRepository.findRowsByIdIn(List.of(3L))).thenReturn(rowsOf(List.of(PLANET_YAVINIV)));
+
+        List<Planet> sut = planetService.findPlanets(new PlanetFilter("Temperate", "jungle", PlanetFilter.Match.ALL));
+
+        assertThat(sut).containsExactly(PLANET_YAVINIV);
+    }
+
+    @Test
+    public void listPlanets_MatchingAnyToken_UnitesPostings() {
+        when(planetRepository.findIdsByClimateToken("arid")).thenReturn(List.of(1L));
+        when(planetRepository.findIdsByClimateToken("tropical")).thenReturn(List.of(3L));
+        when(planetRepository.findRowsByIdIn(List.of(1L, 3L))).thenReturn(rowsOf(List.of(PLANET_TATOOINE, PLANET_YAVINIV)));
+
+        List<Planet> sut = planetService.findPlanets(new PlanetFilter("arid, tropical", null, PlanetFilter.Match.ANY));
+
+        assertThat(sut).containsExactly(PLANET_TATOOINE, PLANET_YAVINIV);
+    }
+
+    @Test
+    public void scrollPlanets_MatchingTokens_ReturnsPageAfterCursor() {
+        when(planetRepository.findIdsByClimateToken("temperate")).thenReturn(List.of(2L, 3L));
+        when(planetRepository.findRowsByIdIn(List.of(2L))).thenReturn(rowsOf(List.of(PLANET_ALDERAAN)));
+        when(planetRepository.findRowsByIdIn(List.of(3L))).thenReturn(rowsOf(List.of(PLANET_YAVINIV)));
+        PlanetFilter filter = new PlanetFilter("temperate", null, PlanetFilter.Match.ALL);
+
+        Window<Planet> firstPage = planetService.findPlanets(filter, ScrollPosition.keyset(), 1);
+        Window<Planet> secondPage = planetService.findPlanets(filter, firstPage.positionAt(0), 1);
+
+        assertThat(firstPage.getContent()).containsExactly(PLANET_ALDERAAN);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).containsExactly(PLANET_YAVINIV);
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
     @Test
     public void removePlanet_WithExistId_ReturnPlanet(){
+        when(planetRepository.deletePlanetById(1L)).thenReturn(1);
+
         assertThatCode(() -> planetService.removeById(1L)).doesNotThrowAnyException();
+        verify(planetChangeRepository).append(PlanetChangeEvent.Type.REMOVED, List.of(1L));
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(1L));
+    }
+
+    @Test
+    public void removePlanet_WithUnexistId_ThrowsEmptyResultDataAccessException(){
+        when(planetRepository.deletePlanetById(290L)).thenReturn(0);
+
+        assertThatThrownBy(() -> planetService.removeById(290L)).isInstanceOf(EmptyResultDataAccessException.class);
+        verify(planetRepository, never()).findById(any());
+        verifyNoInteractions(planetChangeRepository);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    public void removePlanet_WithUnexistId_ThrowsNotSuchElementException(){
-        doThrow(new NoSuchElementException()).when(planetRepository).deleteById(290L);
+    public void removePlanets_WithExistingIds_LogsThemFromRowCount(){
+        when(planetRepository.deletePlanetsByIdIn(Set.of(1L, 2L))).thenReturn(2);
 
-        assertThatThrownBy(() -> planetService.removeById(290L)).isInstanceOf(NoSuchElementException.class);
+        int sut = planetService.removeAllById(List.of(2L, 1L, 2L));
+
+        assertThat(sut).isEqualTo(2);
+        verify(planetRepository, times(1)).deletePlanetsByIdIn(Set.of(1L, 2L));
+        verify(planetRepository, never()).deletePlanetById(any());
+        verify(planetChangeRepository).append(PlanetChangeEvent.Type.REMOVED, List.of(1L, 2L));
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(1L));
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(2L));
+    }
+
+    @Test
+    public void removePlanets_WithSomeUnexistIds_AnnouncesOnlyRemovedPlanets(){
+        when(planetRepository.deletePlanetsByIdIn(Set.of(1L, 290L))).thenReturn(1);
+        when(planetRepository.deletePlanetById(1L)).thenReturn(1);
+
+        int sut = planetService.removeAllById(List.of(1L, 290L));
+
+        assertThat(sut).isEqualTo(1);
+        // a contagem não diz qual id faltou, então a remoção é refeita id a id
+        verify(planetRepository).deletePlanetById(290L);
+        verify(planetChangeRepository).append(PlanetChangeEvent.Type.REMOVED, List.of(1L));
+        verify(eventPublisher).publishEvent(PlanetChangeEvent.removed(1L));
+        // o id inexistente não vai para o log de mudanças nem para os outros nós
+        verify(eventPublisher, never()).publishEvent(PlanetChangeEvent.removed(290L));
+    }
+
+    @Test
+    public void removePlanets_WithUnexistIds_ThrowsEmptyResultDataAccessException(){
+        when(planetRepository.deletePlanetsByIdIn(Set.of(290L))).thenReturn(0);
+
+        assertThatThrownBy(() -> planetService.removeAllById(List.of(290L))).isInstanceOf(EmptyResultDataAccessException.class);
+        verify(planetRepository, never()).deletePlanetById(any());
+        verify(planetChangeRepository, never()).append(any(), anyCollection());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void removePlanets_WithoutIds_ThrowsInvalidPlanetRequestException(){
+        assertThatThrownBy(() -> planetService.removeAllById(List.of())).isInstanceOf(InvalidPlanetRequestException.class);
+        verify(planetRepository, never()).deletePlanetsByIdIn(anyCollection());
     }
 
 
@@ -0,0 +1,72 @@
+package com.example.starwarsplanetapi.service;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANET_TATOOINE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlanetVersionRegistryTest {
+    private final PlanetProperties planetProperties = new PlanetProperties();
+    private final PlanetVersionRegistry planetVersionRegistry = new PlanetVersionRegistry(planetProperties);
+
+    @Test
+    public void load_RegistersVersionOfLoadedPlanet() {
+        Planet sut = planetVersionRegistry.load(PLANET_TATOOINE.getId(), id -> PLANET_TATOOINE);
+
+        assertThat(sut).isEqualTo(PLANET_TATOOINE);
+        assertThat(planetVersionRegistry.find(PLANET_TATOOINE.getId()))
+                .hasValueSatisfying(version -> assertThat(version.eTag()).isEqualTo("\"1-0\""));
+    }
+
+    @Test
+    public void load_WhenRemovedConcurrently_DoesNotRegisterVersion() {
+        // Simula uma remoção concorrente durante a leitura do banco
+        planetVersionRegistry.load(PLANET_TATOOINE.getId(), id -> {
+            planetVersionRegistry.onPlanetChange(PlanetChangeEvent.removed(id));
+            return PLANET_TATOOINE;
+        });
+
+        assertThat(planetVersionRegistry.find(PLANET_TATOOINE.getId())).isEmpty();
+    }
+
+    @Test
+    public void onPlanetChange_AdvancesCollectionETag() {
+        String before = planetVersionRegistry.collection().eTag();
+
+        planetVersionRegistry.onPlanetChange(PlanetChangeEvent.removed(PLANET_TATOOINE.getId()));
+
+        assertThat(planetVersionRegistry.collection().eTag()).isNotEqualTo(before);
+        assertThat(planetVersionRegistry.find(PLANET_TATOOINE.getId())).isEmpty();
+    }
+
+    @Test
+    public void onPlanetChange_WithReset_ForgetsEveryVersion() {
+        planetVersionRegistry.load(PLANET_TATOOINE.getId(), id -> PLANET_TATOOINE);
+        String before = planetVersionRegistry.collection().eTag();
+
+        planetVersionRegistry.onPlanetChange(PlanetChangeEvent.reset());
+
+        assertThat(planetVersionRegistry.collection().eTag()).isNotEqualTo(before);
+        assertThat(planetVersionRegistry.find(PLANET_TATOOINE.getId())).isEmpty();
+    }
+
+    @Test
+    public void load_BeyondMaximumSize_EvictsVersions() {
+        planetProperties.getCache().setMaximumSize(10);
+        PlanetVersionRegistry sut = new PlanetVersionRegistry(planetProperties);
+
+        LongStream.rangeClosed(1, 100).forEach(id -> sut.load(id, loaded -> new Planet(loaded, "Planet " + loaded, "arid", "desert")));
+
+        // a remoção do Caffeine roda em segundo plano depois das escritas
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (LongStream.rangeClosed(1, 100).filter(id -> sut.find(id).isPresent()).count() > 10) {
+            assertThat(System.nanoTime()).as("versions not bounded in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlFilterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void doFilter_WhenLimitReached_ReturnsServiceUnavailable() throws Exception {
+        AdmissionControlFilter filter = filter(admission());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // A requisição externa segura a única vaga de leitura enquanto a interna é processada
+        filter.doFilter(get(), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(get(), rejected, new MockFilterChain()));
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.get("planets.admission.rejected").tag("class", "read").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void doFilter_AfterRequestCompletes_ReleasesPermit() throws Exception {
+        AdmissionControlFilter filter = filter(admission());
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        filter.doFilter(get(), first, new MockFilterChain());
+        filter.doFilter(get(), second, new MockFilterChain());
+
+        assertThat(first.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(second.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void doFilter_WhenReadsAreSaturated_AdmitsWrites() throws Exception {
+        AdmissionControlFilter filter = filter(admission());
+        MockHttpServletResponse write = new MockHttpServletResponse();
+
+        // leituras e escritas têm limites separados
+        filter.doFilter(get(), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("POST", "/planets"), write, new MockFilterChain()));
+
+        assertThat(write.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void doFilter_OnUnlimitedPath_DoesNotTakePermit() throws Exception {
+        AdmissionControlFilter filter = filter(admission());
+        MockHttpServletResponse stream = new MockHttpServletResponse();
+
+        // o feed de mudanças é uma conexão longa e não pode consumir a única vaga
+        filter.doFilter(get(), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/planets/changes"), stream, new MockFilterChain()));
+
+        assertThat(stream.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void doFilter_OnExportAndImport_DoesNotTakePermit() throws Exception {
+        AdmissionControlFilter filter = filter(admission());
+        MockHttpServletResponse export = new MockHttpServletResponse();
+        MockHttpServletResponse importing = new MockHttpServletResponse();
+
+        // exportações e importações longas não ocupam vagas nem entram no gradiente de latência
+        filter.doFilter(get(), new MockHttpServletResponse(), (request, response) -> {
+            filter.doFilter(new MockHttpServletRequest("GET", "/planets/export"), export, new MockFilterChain());
+            filter.doFilter(new MockHttpServletRequest("POST", "/planets/import"), importing, new MockFilterChain());
+        });
+
+        assertThat(export.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(importing.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void doFilter_WithoutClientHeader_LimitsByRemoteAddress() throws Exception {
+        PlanetProperties.Admission admission = admission();
+        admission.getRateLimit().setRequestsPerSecond(1);
+        admission.getRateLimit().setBurst(1);
+        AdmissionControlFilter filter = filter(admission);
+
+        assertThat(status(filter, "client-a")).isEqualTo(HttpStatus.OK.value());
+        // sem cabeçalho configurado, trocar a chave não dá um balde novo ao mesmo endereço
+        assertThat(status(filter, "client-b")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    public void doFilter_WhenClientExceedsRate_ReturnsTooManyRequests() throws Exception {
+        PlanetProperties.Admission admission = admission();
+        admission.getRateLimit().setRequestsPerSecond(1);
+        admission.getRateLimit().setBurst(2);
+        admission.getRateLimit().setClientHeader("X-Api-Key");
+        AdmissionControlFilter filter = filter(admission);
+
+        assertThat(status(filter, "client-a")).isEqualTo(HttpStatus.OK.value());
+        assertThat(status(filter, "client-a")).isEqualTo(HttpStatus.OK.value());
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(get("client-a"), rejected, new MockFilterChain());
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        // outro cliente tem o próprio balde, e o primeiro recupera uma ficha por segundo
+        assertThat(status(filter, "client-b")).isEqualTo(HttpStatus.OK.value());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(status(filter, "client-a")).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void adaptiveLimit_WhenLatencyRises_ShrinksAndRecovers() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 40, 1.5);
+        long baseline = TimeUnit.MILLISECONDS.toNanos(10);
+
+        saturate(limit, baseline, 200);
+        int steady = limit.limit();
+        saturate(limit, baseline * 10, 20);
+        int degraded = limit.limit();
+        saturate(limit, baseline, 2_000);
+
+        assertThat(steady).isEqualTo(40);
+        assertThat(degraded).isLessThan(steady / 2);
+        assertThat(limit.limit()).isGreaterThan(degraded);
+    }
+
+    @Test
+    public void adaptiveLimit_WhenRequestsFail_BacksOff() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 40, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+
+        assertThat(limit.limit()).isLessThan(10);
+    }
+
+    // Mantém o limite ocupado para que as amostras possam aumentá-lo
+    private static void saturate(AdaptiveConcurrencyLimit limit, long rttNanos, int samples) {
+        for (int i = 0; i < samples; i++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int j = 0; j < acquired; j++) {
+                limit.release(rttNanos, false);
+            }
+        }
+    }
+
+    private int status(AdmissionControlFilter filter, String client) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(get(client), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private AdmissionControlFilter filter(PlanetProperties.Admission admission) {
+        return new AdmissionControlFilter(admission, meterRegistry, clock::get, "/planets/changes", "/planets/export", "/planets/import");
+    }
+
+    private static PlanetProperties.Admission admission() {
+        PlanetProperties.Admission admission = new PlanetProperties.Admission();
+        admission.setReads(new PlanetProperties.Limit(1, 1, 1));
+        admission.setWrites(new PlanetProperties.Limit(1, 1, 1));
+        return admission;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/planets/1");
+    }
+
+    private static MockHttpServletRequest get(String client) {
+        MockHttpServletRequest request = get();
+        request.addHeader("X-Api-Key", client);
+        return request;
+    }
+}
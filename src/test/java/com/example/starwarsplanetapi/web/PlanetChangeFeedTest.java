@@ -0,0 +1,185 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.PLANET;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class PlanetChangeFeedTest {
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    private PlanetChangeFeed planetChangeFeed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void beforeEach() {
+        PlanetProperties planetProperties = new PlanetProperties();
+        planetProperties.getChanges().setRingSize(4);
+        planetProperties.getChanges().setMaxSubscribers(2);
+        planetProperties.getChanges().setHeartbeatInterval(Duration.ofMillis(50));
+        planetChangeFeed = new PlanetChangeFeed(Jackson2ObjectMapperBuilder.json().build(), planetProperties);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FeedController(planetChangeFeed)).build();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        planetChangeFeed.destroy();
+    }
+
+    @Test
+    public void subscribe_WhenPlanetsChange_StreamsEventsInOrder() throws Exception {
+        MvcResult result = subscribe(null);
+
+        planetChangeFeed.onPlanetChange(PlanetChangeEvent.created(PLANET));
+        planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(1L));
+
+        awaitContent(result, "event:removed");
+        String content = result.getResponse().getContentAsString();
+        assertThat(content.indexOf("event:created")).isLessThan(content.indexOf("event:removed"));
+        assertThat(content).contains("\"name\":\"name\"");
+    }
+
+    @Test
+    public void subscribe_WhenPlanetsChangeConcurrently_StreamsEveryEvent() throws Exception {
+        MvcResult result = subscribe(null);
+
+        // escritores concorrentes podem reservar a sequência antes de gravar o slot
+        Thread[] writers = new Thread[3];
+        for (int i = 0; i < writers.length; i++) {
+            long id = i + 1;
+            writers[i] = Thread.ofVirtual().start(() -> planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(id)));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        awaitCondition(() -> {
+            try {
+                String content = result.getResponse().getContentAsString();
+                return content.contains("\"id\":1") && content.contains("\"id\":2") && content.contains("\"id\":3");
+            } catch (Exception ex) {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void subscribe_WithLastEventId_ResumesAfterIt() throws Exception {
+        MvcResult first = subscribe(null);
+        planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(1L));
+        awaitContent(first, "event:removed");
+        String lastEventId = lastEventId(first);
+
+        // eventos publicados enquanto o cliente estava desconectado são reenviados na reconexão
+        planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(2L));
+        planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(3L));
+        MvcResult resumed = subscribe(lastEventId);
+
+        awaitContent(resumed, "\"id\":3");
+        assertThat(resumed.getResponse().getContentAsString()).contains("\"id\":2").doesNotContain("\"id\":1,");
+    }
+
+    @Test
+    public void subscribe_WithEvictedLastEventId_SendsReset() throws Exception {
+        MvcResult first = subscribe(null);
+        planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(1L));
+        awaitContent(first, "event:removed");
+        String lastEventId = lastEventId(first);
+
+        // o anel guarda só 4 eventos, então o cliente precisa recarregar o estado completo
+        for (long id = 2; id <= 7; id++) {
+            planetChangeFeed.onPlanetChange(PlanetChangeEvent.removed(id));
+        }
+        MvcResult resumed = subscribe(lastEventId);
+
+        awaitContent(resumed, "event:" + PlanetChangeFeed.RESET_EVENT);
+        assertThat(resumed.getResponse().getContentAsString()).doesNotContain("event:removed");
+    }
+
+    @Test
+    public void subscribe_WithIdFromAnotherRun_SendsReset() throws Exception {
+        MvcResult result = subscribe("previous-42");
+
+        awaitContent(result, "event:" + PlanetChangeFeed.RESET_EVENT);
+    }
+
+    @Test
+    public void subscribe_WhenLimitReached_ReturnsEmpty() throws Exception {
+        subscribe(null);
+        subscribe(null);
+
+        assertThat(planetChangeFeed.subscribe(null)).isEmpty();
+    }
+
+    @Test
+    public void subscribe_WhenIdle_SendsHeartbeats() throws Exception {
+        MvcResult result = subscribe(null);
+
+        awaitContent(result, ":heartbeat");
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/changes");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static String lastEventId(MvcResult result) throws Exception {
+        Matcher matcher = EVENT_ID.matcher(result.getResponse().getContentAsString());
+        String last = null;
+        while (matcher.find()) {
+            last = matcher.group(1);
+        }
+        return last;
+    }
+
+    private static void awaitContent(MvcResult result, String expected) {
+        awaitCondition(() -> {
+            try {
+                return result.getResponse().getContentAsString().contains(expected);
+            } catch (Exception ex) {
+                return false;
+            }
+        });
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    @RestController
+    record FeedController(PlanetChangeFeed planetChangeFeed) {
+        @GetMapping("/changes")
+        public SseEmitter changes(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+            return planetChangeFeed.subscribe(lastEventId).orElseThrow();
+        }
+    }
+}
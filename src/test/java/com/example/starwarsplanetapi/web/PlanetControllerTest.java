@@ -1,31 +1,66 @@
 package com.example.starwarsplanetapi.web;
 
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetBatchItem;
+import com.example.starwarsplanetapi.domain.PlanetFacets;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.domain.PlanetImportReport;
+import com.example.starwarsplanetapi.service.PlanetFacetIndex;
+import com.example.starwarsplanetapi.service.PlanetImporter;
+import com.example.starwarsplanetapi.service.PlanetNameIndex;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
 import com.example.starwarsplanetapi.service.PlanetService;
+import com.example.starwarsplanetapi.service.PlanetVersionRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
 
 import static com.example.starwarsplanetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = PlanetController.class)
+@Import({PlanetVersionRegistry.class, PlanetDocumentCache.class, PlanetProperties.class, SimpleMeterRegistry.class})
 public class PlanetControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -33,6 +68,26 @@ public class PlanetControllerTest {
     private ObjectMapper objectMapper;
     @MockBean
     private PlanetService planetService;
+    @MockBean
+    private PlanetFacetIndex planetFacetIndex;
+    @MockBean
+    private PlanetNameIndex planetNameIndex;
+    @MockBean
+    private PlanetImporter planetImporter;
+    @MockBean
+    private PlanetChangeFeed planetChangeFeed;
+    @Autowired
+    private PlanetDocumentCache planetDocumentCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @AfterEach
+    public void afterEach() {
+        planetDocumentCache.invalidateAll();
+        meterRegistry.clear();
+    }
 
     @Test
     public void createPlanet_WithValidData_ReturnsCreated() throws Exception {
@@ -77,6 +132,48 @@ public class PlanetControllerTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    public void planetErrors_AreCountedByStatusAndException() throws Exception {
+        when(planetService.findById(1L)).thenThrow(NoSuchElementException.class);
+        when(planetService.create(any())).thenThrow(DataIntegrityViolationException.class);
+
+        mockMvc.perform(get("/planets/1")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/planets")
+                        .content(objectMapper.writeValueAsString(PLANET_TATOOINE))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/planets")
+                        .content(objectMapper.writeValueAsString(INVALID_PLANET))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(errors("404", "NoSuchElementException")).isEqualTo(1);
+        assertThat(errors("409", "DataIntegrityViolationException")).isEqualTo(1);
+        assertThat(errors("422", "MethodArgumentNotValidException")).isEqualTo(1);
+    }
+
+    private double errors(String status, String exception) {
+        return meterRegistry.get("planets.errors").tags("status", status, "exception", exception).counter().count();
+    }
+
+    @Test
+    public void createPlanets_InBatch_ReturnsItemResults() throws Exception {
+        when(planetService.createAll(any())).thenReturn(List.of(
+                PlanetBatchItem.created(0, PLANET_TATOOINE),
+                PlanetBatchItem.conflict(1, PLANET_ALDERAAN, "Planet name already exists")));
+
+        mockMvc
+                .perform(post("/planets/batch")
+                        .content(objectMapper.writeValueAsString(List.of(PLANET_TATOOINE, PLANET_ALDERAAN)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").value(PLANET_TATOOINE.getId()))
+                .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+    }
+
     @Test
     public void getPlanet_WithExistingId_ReturnsPlanet() throws Exception {
         when(planetService.findById(1L)).thenReturn(PLANET_ALDERAAN);
@@ -88,6 +185,25 @@ public class PlanetControllerTest {
                 .andExpect(jsonPath("$").value(PLANET_ALDERAAN));
     }
 
+    @Test
+    public void getPlanet_WithMatchingETag_ReturnsNotModifiedWithoutLoading() throws Exception {
+        when(planetService.findById(1L)).thenReturn(PLANET_ALDERAAN);
+
+        String eTag = mockMvc
+                .perform(get("/planets/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A segunda requisição é respondida pelo mapa de versões, sem consultar o serviço
+        mockMvc
+                .perform(get("/planets/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        verify(planetService, times(1)).findById(1L);
+    }
+
     @Test
     public void getPlanet_WithUnexistingId_ReturnsNotFound() throws Exception {
 
@@ -99,6 +215,15 @@ public class PlanetControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void getPlanet_WhenServiceFailsWithIllegalArgument_IsNotMappedToBadRequest() {
+        // só InvalidPlanetRequestException vira 400; um IllegalArgumentException qualquer é erro do servidor
+        when(planetService.findById(1L)).thenThrow(new IllegalArgumentException("bug"));
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/planets/1")))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void getPlanet_WithExistingName_ReturnsPlanet() throws Exception {
         when(planetService.findByName(PLANET_ALDERAAN.getName())).thenReturn(PLANET_ALDERAAN);
@@ -110,6 +235,22 @@ public class PlanetControllerTest {
                 .andExpect(jsonPath("$").value(PLANET_ALDERAAN));
     }
 
+    @Test
+    public void getPlanet_ByNameWithMatchingETag_ReturnsNotModified() throws Exception {
+        when(planetService.findByName(PLANET_ALDERAAN.getName())).thenReturn(PLANET_ALDERAAN);
+
+        String eTag = mockMvc
+                .perform(get("/planets/name/" + PLANET_ALDERAAN.getName()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc
+                .perform(get("/planets/name/" + PLANET_ALDERAAN.getName()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
     @Test
     public void getPlanet_WithUnexistingName_ReturnsNotFound() throws Exception {
 
@@ -123,8 +264,8 @@ public class PlanetControllerTest {
 
     @Test
     public void listPlanets_ReturnsFilteredPlanets() throws Exception {
-        when(planetService.findPlanets(null, null)).thenReturn(LIST_OF_PLANETS);
-        when(planetService.findPlanets(PLANET_ALDERAAN.getClimate(), PLANET_ALDERAAN.getTerrain())).thenReturn(Arrays.asList(PLANET_ALDERAAN));
+        when(planetService.findPlanets(PlanetFilter.exact(null, null))).thenReturn(LIST_OF_PLANETS);
+        when(planetService.findPlanets(PlanetFilter.exact(PLANET_ALDERAAN.getClimate(), PLANET_ALDERAAN.getTerrain()))).thenReturn(Arrays.asList(PLANET_ALDERAAN));
 
         mockMvc
                 .perform(get("/planets/")
@@ -141,9 +282,77 @@ public class PlanetControllerTest {
 
     }
 
+    @Test
+    public void listPlanets_WithMatchingETag_ReturnsNotModifiedUntilCollectionChanges() throws Exception {
+        when(planetService.findPlanets(PlanetFilter.exact(null, null))).thenReturn(LIST_OF_PLANETS);
+
+        String eTag = mockMvc
+                .perform(get("/planets/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc
+                .perform(get("/planets/").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        eventPublisher.publishEvent(PlanetChangeEvent.created(PLANET_HOTH));
+
+        mockMvc
+                .perform(get("/planets/").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        verify(planetService, times(2)).findPlanets(PlanetFilter.exact(null, null));
+    }
+
+    @Test
+    public void listPlanets_RepeatedAndGzipAccepted_ServesCachedCompressedDocument() throws Exception {
+        List<Planet> planets = LongStream.rangeClosed(1, 30)
+                .mapToObj(id -> new Planet(id, "Planet " + id, "temperate", "grasslands, mountains"))
+                .toList();
+        when(planetService.findPlanets(PlanetFilter.exact(null, null))).thenReturn(planets);
+
+        MvcResult identity = mockMvc
+                .perform(get("/planets/"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        MvcResult compressed = mockMvc
+                .perform(get("/planets/").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+
+        // O documento é serializado e comprimido uma única vez
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(identity.getResponse().getContentAsString());
+        }
+        verify(planetService, times(1)).findPlanets(PlanetFilter.exact(null, null));
+    }
+
+    @Test
+    public void listPlanets_WithGzipETag_ReturnsNotModifiedForThatVariant() throws Exception {
+        List<Planet> planets = LongStream.rangeClosed(1, 30)
+                .mapToObj(id -> new Planet(id, "Planet " + id, "temperate", "grasslands, mountains"))
+                .toList();
+        when(planetService.findPlanets(PlanetFilter.exact(null, null))).thenReturn(planets);
+
+        String identityTag = mockMvc.perform(get("/planets/"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipTag = mockMvc.perform(get("/planets/").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // cada codificação tem seu próprio validador forte
+        assertThat(gzipTag).isNotEqualTo(identityTag).endsWith("-gzip\"");
+        mockMvc
+                .perform(get("/planets/").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipTag))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)));
+    }
+
     @Test
     public void listPlanets_ReturnsNoPlanets() throws Exception {
-        when(planetService.findPlanets("dry", null)).thenReturn(new ArrayList<>());
+        when(planetService.findPlanets(PlanetFilter.exact("dry", null))).thenReturn(new ArrayList<>());
 
         mockMvc
                 .perform(get("/planets/")
@@ -152,6 +361,131 @@ public class PlanetControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    public void listPlanets_ByToken_ReturnsMatchingPlanets() throws Exception {
+        when(planetService.findPlanets(new PlanetFilter("tropical", "jungle", PlanetFilter.Match.ALL))).thenReturn(List.of(PLANET_YAVINIV));
+
+        mockMvc
+                .perform(get("/planets/?climate=tropical&terrain=jungle&match=all")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value(PLANET_YAVINIV.getName()));
+    }
+
+    @Test
+    public void listPlanets_WithInvalidMatchMode_ReturnsBadRequest() throws Exception {
+        mockMvc
+                .perform(get("/planets/?climate=tropical&match=some")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void listPlanets_WithLimit_ReturnsPageWithNextCursor() throws Exception {
+        Window<Planet> page = Window.from(List.of(PLANET_TATOOINE, PLANET_ALDERAAN),
+                i -> ScrollPosition.forward(Map.of("id", (long) i + 1)), true);
+        when(planetService.findPlanets(eq(PlanetFilter.exact(null, null)), eq(ScrollPosition.keyset()), eq(2))).thenReturn(page);
+        String nextCursor = PlanetCursor.encode(ScrollPosition.forward(Map.of("id", 2L)));
+
+        mockMvc
+                .perform(get("/planets/?limit=2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(PlanetController.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(header().string("Link", containsString("cursor=" + nextCursor)));
+    }
+
+    @Test
+    public void listPlanets_WithLastPage_ReturnsNoNextCursor() throws Exception {
+        ScrollPosition position = PlanetCursor.decode(PlanetCursor.encode(ScrollPosition.forward(Map.of("id", 2L))));
+        Window<Planet> page = Window.from(List.of(PLANET_HOTH), i -> ScrollPosition.forward(Map.of("id", 4L)), false);
+        when(planetService.findPlanets(PlanetFilter.exact(null, null), position, PlanetController.DEFAULT_PAGE_SIZE)).thenReturn(page);
+
+        mockMvc
+                .perform(get("/planets/?cursor=" + PlanetCursor.encode(position))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(PlanetController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void listPlanets_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+        mockMvc
+                .perform(get("/planets/?cursor=not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getFacets_WithFilter_ReturnsCounts() throws Exception {
+        when(planetFacetIndex.facets(new PlanetFilter("temperate", null, PlanetFilter.Match.EXACT)))
+                .thenReturn(new PlanetFacets(2, Map.of("temperate", 2, "tropical", 1), Map.of("jungle", 1, "mountains", 1)));
+
+        mockMvc
+                .perform(get("/planets/facets?climate=temperate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.climate.temperate").value(2))
+                .andExpect(jsonPath("$.terrain.jungle").value(1));
+    }
+
+    @Test
+    public void searchPlanets_WithQuery_ReturnsMatches() throws Exception {
+        when(planetNameIndex.search("tatoo", 5)).thenReturn(List.of(PLANET_TATOOINE));
+
+        mockMvc
+                .perform(get("/planets/search?q=tatoo&limit=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value(PLANET_TATOOINE.getName()));
+    }
+
+    @Test
+    public void exportPlanets_ReturnsNdjsonStream() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Planet> consumer = invocation.getArgument(0);
+            LIST_OF_PLANETS.forEach(consumer);
+            return null;
+        }).when(planetService).exportPlanets(any());
+        StringBuilder expected = new StringBuilder();
+        for (Planet planet : LIST_OF_PLANETS) {
+            expected.append(objectMapper.writeValueAsString(planet)).append('\n');
+        }
+
+        MvcResult result = mockMvc
+                .perform(get("/planets/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expected.toString()));
+    }
+
+    @Test
+    public void subscribeChanges_WithLastEventId_StartsEventStream() throws Exception {
+        when(planetChangeFeed.subscribe("epoch-7")).thenReturn(Optional.of(new SseEmitter()));
+
+        mockMvc
+                .perform(get("/planets/changes").header("Last-Event-ID", "epoch-7").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    public void subscribeChanges_WhenFeedIsFull_ReturnsServiceUnavailable() throws Exception {
+        when(planetChangeFeed.subscribe(null)).thenReturn(Optional.empty());
+
+        mockMvc
+                .perform(get("/planets/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
     @Test
     public void removePlanet_WithExistingId_RemovesPlanetFromDataBase() throws Exception{
         mockMvc
@@ -168,4 +502,37 @@ public class PlanetControllerTest {
                 .perform(delete("/planets/2").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    public void removePlanets_WithIds_ReturnsNoContent() throws Exception {
+        mockMvc
+                .perform(delete("/planets").param("ids", "1,2"))
+                .andExpect(status().isNoContent());
+
+        verify(planetService).removeAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    public void removePlanets_WithUnexistingIds_ReturnsNotFound() throws Exception {
+        doThrow(new EmptyResultDataAccessException(2)).when(planetService).removeAllById(List.of(98L, 99L));
+
+        mockMvc
+                .perform(delete("/planets").param("ids", "98,99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void importPlanets_WithJsonDump_ReturnsReport() throws Exception {
+        PlanetImportReport report = new PlanetImportReport(2, 1, 1,
+                List.of(PlanetBatchItem.invalid(1, INVALID_PLANET, "climate must not be empty")), false, 5);
+        when(planetImporter.importPlanets(any())).thenReturn(report);
+
+        mockMvc
+                .perform(post("/planets/import").content(objectMapper.writeValueAsString(List.of(PLANET, INVALID_PLANET)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].index").value(1));
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.config.PlanetProperties;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.service.PlanetChangeEvent;
+import com.example.starwarsplanetapi.web.PlanetDocumentCache.PlanetDocument;
+import com.example.starwarsplanetapi.web.PlanetDocumentCache.Versioned;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlanetDocumentCacheTest {
+    private final PlanetDocumentCache planetDocumentCache = new PlanetDocumentCache(new ObjectMapper(), new PlanetProperties());
+
+    @Test
+    public void planet_WhenCached_ReturnsSameEncodedDocument() {
+        PlanetDocument first = planetDocumentCache.planet(1L, () -> new Versioned(PLANET_TATOOINE, "\"1-0\"", null));
+        PlanetDocument second = planetDocumentCache.planet(1L, () -> new Versioned(PLANET_ALDERAAN, "\"1-1\"", null));
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.json(), StandardCharsets.UTF_8)).contains("\"name\":\"Tatooine\"");
+        // Documentos pequenos não são comprimidos
+        assertThat(first.gzip()).isNull();
+    }
+
+    @Test
+    public void planet_WhenChangedDuringLoad_DoesNotCacheStaleDocument() {
+        planetDocumentCache.planet(1L, () -> {
+            planetDocumentCache.onPlanetChange(PlanetChangeEvent.removed(1L));
+            return new Versioned(PLANET_TATOOINE, "\"1-0\"", null);
+        });
+
+        PlanetDocument sut = planetDocumentCache.planet(1L, () -> new Versioned(PLANET_ALDERAAN, "\"1-1\"", null));
+
+        assertThat(sut.eTag()).isEqualTo("\"1-1\"");
+    }
+
+    @Test
+    public void list_AfterPlanetChange_IsEncodedAgain() {
+        PlanetDocument before = planetDocumentCache.list(PlanetFilter.exact(null, null), () -> new Versioned(PLANETS, "\"a-0\"", null));
+
+        planetDocumentCache.onPlanetChange(PlanetChangeEvent.created(PLANET_HOTH));
+        PlanetDocument sut = planetDocumentCache.list(PlanetFilter.exact(null, null), () -> new Versioned(LIST_OF_PLANETS, "\"a-1\"", null));
+
+        assertThat(sut).isNotSameAs(before);
+        assertThat(new String(sut.json(), StandardCharsets.UTF_8)).contains("Hoth");
+    }
+
+    @Test
+    public void planet_AfterReset_IsEncodedAgain() {
+        PlanetDocument before = planetDocumentCache.planet(1L, () -> new Versioned(PLANET_TATOOINE, "\"1-0\"", null));
+
+        planetDocumentCache.onPlanetChange(PlanetChangeEvent.reset());
+        PlanetDocument sut = planetDocumentCache.planet(1L, () -> new Versioned(PLANET_ALDERAAN, "\"1-1\"", null));
+
+        assertThat(sut).isNotSameAs(before);
+        assertThat(sut.eTag()).isEqualTo("\"1-1\"");
+    }
+}
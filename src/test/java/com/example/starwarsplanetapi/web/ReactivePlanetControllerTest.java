@@ -0,0 +1,137 @@
+package com.example.starwarsplanetapi.web;
+
+import com.example.starwarsplanetapi.domain.Planet;
+import com.example.starwarsplanetapi.domain.PlanetFilter;
+import com.example.starwarsplanetapi.service.ReactivePlanetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.NoSuchElementException;
+
+import static com.example.starwarsplanetapi.common.PlanetConstants.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ReactivePlanetController.class)
+@ActiveProfiles("reactive")
+public class ReactivePlanetControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @MockBean
+    private ReactivePlanetService planetService;
+
+    @Test
+    public void createPlanet_WithValidData_ReturnsCreated() {
+        when(planetService.create(any(Planet.class))).thenReturn(Mono.just(PLANET_TATOOINE));
+
+        webTestClient.post().uri("/planets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(PLANET)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Planet.class).isEqualTo(PLANET_TATOOINE);
+    }
+
+    @Test
+    public void createPlanet_WithInvalidData_ReturnsUnprocessableEntity() {
+        webTestClient.post().uri("/planets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(INVALID_PLANET)
+                .exchange()
+                .expectStatus().isEqualTo(422);
+    }
+
+    @Test
+    public void getPlanet_ByExistingId_ReturnsPlanet() {
+        when(planetService.findById(1L)).thenReturn(Mono.just(PLANET_TATOOINE));
+
+        webTestClient.get().uri("/planets/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Planet.class).isEqualTo(PLANET_TATOOINE);
+    }
+
+    @Test
+    public void getPlanet_ByUnexistingId_ReturnsNotFound() {
+        when(planetService.findById(1L)).thenReturn(Mono.error(new NoSuchElementException()));
+
+        webTestClient.get().uri("/planets/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void getPlanet_ByExistingName_ReturnsPlanet() {
+        when(planetService.findByName("Tatooine")).thenReturn(Mono.just(PLANET_TATOOINE));
+
+        webTestClient.get().uri("/planets/name/Tatooine")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Planet.class).isEqualTo(PLANET_TATOOINE);
+    }
+
+    @Test
+    public void listPlanets_ReturnsFilteredPlanets() {
+        when(planetService.findPlanets(PlanetFilter.exact("temperate", null)))
+                .thenReturn(Flux.just(PLANET_ALDERAAN, PLANET_YAVINIV));
+
+        webTestClient.get().uri("/planets/?climate=temperate")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Planet.class).hasSize(2).contains(PLANET_ALDERAAN, PLANET_YAVINIV);
+    }
+
+    @Test
+    public void listPlanets_AsNdjson_StreamsOnePlanetPerLine() {
+        when(planetService.findPlanets(PlanetFilter.exact(null, null))).thenReturn(Flux.fromIterable(PLANETS));
+
+        // o cliente consome o fluxo elemento a elemento, sem esperar a lista inteira
+        Flux<Planet> body = webTestClient.get().uri("/planets/")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Planet.class)
+                .getResponseBody();
+
+        StepVerifier.create(body, 1)
+                .expectNext(PLANET_TATOOINE)
+                .thenRequest(2)
+                .expectNext(PLANET_ALDERAAN, PLANET_YAVINIV)
+                .verifyComplete();
+    }
+
+    @Test
+    public void listPlanets_WithInvalidMatch_ReturnsBadRequest() {
+        webTestClient.get().uri("/planets/?climate=arid&match=some")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void removePlanet_WithExistingId_ReturnsNoContent() {
+        when(planetService.removeById(1L)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/planets/1")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    public void removePlanet_WithUnexistingId_ReturnsNotFound() {
+        when(planetService.removeById(99L)).thenReturn(Mono.error(new EmptyResultDataAccessException(1)));
+
+        webTestClient.delete().uri("/planets/99")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
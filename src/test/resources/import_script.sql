@@ -1,3 +1,5 @@
-INSERT INTO planets (id, name, climate, terrain) VALUES (1, 'Tatooine', 'arid', 'desert');
-INSERT INTO planets (id, name, climate, terrain) VALUES (2, 'Alderaan', 'temperate', 'grasslands, mountains');
-INSERT INTO planets (id, name, climate, terrain) VALUES (3, 'Yavin IV', 'temperate, tropical', 'jungle, rainforests');
\ No newline at end of file
+INSERT INTO planets (id, name, climate, terrain, climate_key, terrain_key, version, updated_at) VALUES (1, 'Tatooine', 'arid', 'desert', 'arid', 'desert', 0, CURRENT_TIMESTAMP);
+INSERT INTO planets (id, name, climate, terrain, climate_key, terrain_key, version, updated_at) VALUES (2, 'Alderaan', 'temperate', 'grasslands, mountains', 'temperate', 'grasslands, mountains', 0, CURRENT_TIMESTAMP);
+INSERT INTO planets (id, name, climate, terrain, climate_key, terrain_key, version, updated_at) VALUES (3, 'Yavin IV', 'temperate, tropical', 'jungle, rainforests', 'temperate, tropical', 'jungle, rainforests', 0, CURRENT_TIMESTAMP);
+INSERT INTO planet_climate (planet_id, token) VALUES (1, 'arid'), (2, 'temperate'), (3, 'temperate'), (3, 'tropical');
+INSERT INTO planet_terrain (planet_id, token) VALUES (1, 'desert'), (2, 'grasslands'), (2, 'mountains'), (3, 'jungle'), (3, 'rainforests');
@@ -1 +1,3 @@
-TRUNCATE TABLE planets;
+DELETE FROM planet_climate;
+DELETE FROM planet_terrain;
+DELETE FROM planets;